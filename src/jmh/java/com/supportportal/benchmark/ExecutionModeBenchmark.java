@@ -0,0 +1,105 @@
+package com.supportportal.benchmark;
+
+import com.google.common.io.ByteStreams;
+import com.supportportal.SupportportalApplication;
+import com.supportportal.domain.User;
+import com.supportportal.domain.UserPrincipal;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import com.supportportal.utility.JWTTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.supportportal.constant.SecurityConstant.TOKEN_PREFIX;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+//the web.execution-mode settings under load over http: 24 clients read pages of users from a database that
+//answers every statement after databaseLatency milliseconds while 8 clients call an endpoint that needs no
+//database at all. tomcat is kept to 8 threads so the slow reads can take all of them. read the p0.99 lines of
+//both methods. virtual only differs from platform on a java 21 runtime, run the harness with that java. only the
+//database is slowed down, it is the one blocking call left on the request path: stored images go out through
+//sendfile, avatars are drawn locally and uploads are resized and mailed off the request thread
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 2, time = 10)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    private static final int USERS = 200;
+    private static final int TOMCAT_THREADS = 8;
+    private static final int DATABASE_CONNECTIONS = 32;
+
+    @Param({"platform", "async", "virtual"})
+    private String mode;
+
+    @Param({"20", "100"})
+    private long databaseLatency;
+
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SupportportalApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--server.tomcat.max-threads=" + TOMCAT_THREADS,
+                        "--web.execution-mode=" + mode,
+                        "--web.async.workers=" + DATABASE_CONNECTIONS,
+                        "--spring.datasource.hikari.maximum-pool-size=" + DATABASE_CONNECTIONS,
+                        "--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + LatencyInjectingStatementInspector.class.getName());
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder().userId("id" + i).userName("user" + i).email("user" + i + "@mail.com")
+                    .role(Role.ROLE_USER.name()).isActive(true).isNotLocked(true).build());
+        }
+        List<User> saved = context.getBean(UserRepository.class).saveAll(users);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/user/";
+        authorization = TOKEN_PREFIX + context.getBean(JWTTokenProvider.class).generateJWTToken(new UserPrincipal(saved.get(0)));
+        LatencyInjectingStatementInspector.latencyMillis = databaseLatency;
+    }
+
+    @TearDown
+    public void tearDown() {
+        LatencyInjectingStatementInspector.latencyMillis = 0;
+        context.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(24)
+    public long databaseRead() throws IOException {
+        return get("page?size=20");
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(8)
+    public long noDatabase() throws IOException {
+        return get("home");
+    }
+
+    private long get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestProperty(AUTHORIZATION, authorization);
+        if(connection.getResponseCode() != 200)
+        {
+            throw new IllegalStateException(path + " answered " + connection.getResponseCode());
+        }
+        try (InputStream body = connection.getInputStream()) {
+            return ByteStreams.exhaust(body);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.supportportal.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.supportportal.domain.VerifiedToken;
+import com.supportportal.utility.JWTTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.supportportal.constant.SecurityConstant.AUTHORITIES;
+import static com.supportportal.constant.SecurityConstant.EXPIRATION_TIME;
+import static com.supportportal.constant.SecurityConstant.GET_ARRAYS_LLC;
+
+//compares the per request token handling before (three verifier builds and verifications) and after (one cached verification)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTTokenProviderBenchmark {
+
+    private static final String SECRET = "benchmark-secret";
+
+    @Param({"1", "4", "16", "64"})
+    private int authorityCount;
+
+    private JWTTokenProvider jwtTokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        String[] authorities = new String[authorityCount];
+        for (int i = 0; i < authorityCount; i++) {
+            authorities[i] = "user:authority" + i;
+        }
+        //roles carry at most four authorities, the token is signed directly to try longer claims
+        jwtTokenProvider = new JWTTokenProvider(SECRET);
+        token = JWT.create().withIssuer(GET_ARRAYS_LLC).withSubject("benchmark").withArrayClaim(AUTHORITIES, authorities)
+                .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME)).sign(Algorithm.HMAC512(SECRET));
+    }
+
+    @Benchmark
+    public Object previousPipeline() {
+        String userName = getJWTVerifier().verify(token).getSubject();
+        boolean expired = getJWTVerifier().verify(token).getExpiresAt().before(new Date());
+        String[] claims = getJWTVerifier().verify(token).getClaim(AUTHORITIES).asArray(String.class);
+        List<GrantedAuthority> authorities = Arrays.stream(claims).map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+        return expired ? null : new VerifiedToken(userName, authorities, null);
+    }
+
+    @Benchmark
+    public VerifiedToken singleVerification() {
+        return jwtTokenProvider.verifyToken(token);
+    }
+
+    private JWTVerifier getJWTVerifier() {
+        return JWT.require(Algorithm.HMAC512(SECRET)).withIssuer(GET_ARRAYS_LLC).build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.supportportal.benchmark;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.TimeUnit;
+
+//makes every statement hibernate prepares wait as long as a round trip to a remote database would
+public class LatencyInjectingStatementInspector implements StatementInspector {
+
+    static volatile long latencyMillis;
+
+    @Override
+    public String inspect(String sql) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,310 @@
+package com.supportportal.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.io.ByteStreams;
+import com.supportportal.SupportportalApplication;
+import com.supportportal.domain.User;
+import com.supportportal.domain.UserPrincipal;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import com.supportportal.utility.JWTTokenProvider;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.supportportal.constant.SecurityConstant.TOKEN_PREFIX;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_FORM_URLENCODED_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+//boots the application on the embedded test database, seeds load.users users and has load.concurrency clients
+//call it over http for load.duration seconds after load.warmup seconds, each client picking its next request
+//from load.mix. prints the throughput, the latency percentiles and the statements per request of every
+//endpoint, and writes the same summary as json plus one hdr histogram (.hgrm) per endpoint into load.result.
+//any application property can be passed as well, e.g. --password.bcrypt.cost=10 for production cost logins:
+//mvn -Pbenchmark test-compile exec:exec@load-test -Dload="--load.concurrency=32 --load.duration=60"
+public class LoadTest {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final String ADMIN_USER_NAME = "load-test-admin";
+
+    enum Operation {
+        LOGIN("POST /user/login"),
+        FIND("GET /user/find/{userName}"),
+        LIST("GET /user/list"),
+        IMAGE("GET /user/image/profile/{userName}"),
+        UPDATE("POST /user/update");
+
+        private final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    private static class Result {
+
+        private final Histogram latencyMicros = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+    }
+
+    private final Map<Operation, Result> results = new EnumMap<>(Operation.class);
+    private final Operation[] mix;
+    private final int users;
+    private final String baseUrl;
+    private final String authorization;
+    private volatile long measureFrom;
+    private Map<String, Long> statements;
+
+    private LoadTest(Operation[] mix, int users, String baseUrl, String authorization) {
+        this.mix = mix;
+        this.users = users;
+        this.baseUrl = baseUrl;
+        this.authorization = authorization;
+        for (Operation operation : Operation.values()) {
+            results.put(operation, new Result());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>();
+        arguments.add("--server.port=0");
+        arguments.add("--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + StatementCountingInspector.class.getName());
+        for (String arg : args) {
+            arguments.add(arg);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SupportportalApplication.class)
+                .profiles("test")
+                .run(arguments.toArray(new String[0]));
+        try {
+            Environment environment = context.getEnvironment();
+            int users = environment.getProperty("load.users", Integer.class, 1000);
+            int concurrency = environment.getProperty("load.concurrency", Integer.class, 16);
+            //keep-alive connections are only reused up to this many per host, 5 by default
+            System.setProperty("http.maxConnections", String.valueOf(concurrency));
+            String authorization = seed(context, users);
+            LoadTest loadTest = new LoadTest(parseMix(environment.getProperty("load.mix", "login=5,find=40,list=5,image=35,update=15")),
+                    users, "http://localhost:" + environment.getProperty("local.server.port"), authorization);
+            long measuredNanos = loadTest.run(concurrency, environment.getProperty("load.warmup", Integer.class, 10),
+                    environment.getProperty("load.duration", Integer.class, 30));
+            loadTest.report(concurrency, measuredNanos, new File(environment.getProperty("load.result", "target/load-test")));
+        } finally {
+            context.close();
+        }
+    }
+
+    //every seeded user logs in with the same password, hashed once at the configured cost. the requests that
+    //need authorities run as a super admin
+    private static String seed(ConfigurableApplicationContext context, int users) {
+        String password = context.getBean(BCryptPasswordEncoder.class).encode(PASSWORD);
+        List<User> seeded = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            seeded.add(newUser("user" + i, Role.ROLE_USER, password));
+        }
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        userRepository.saveAll(seeded);
+        User admin = userRepository.save(newUser(ADMIN_USER_NAME, Role.ROLE_SUPER_ADMIN, password));
+        return TOKEN_PREFIX + context.getBean(JWTTokenProvider.class).generateJWTToken(new UserPrincipal(admin));
+    }
+
+    private static User newUser(String userName, Role role, String password) {
+        return User.builder().userId(userName).firstName("first").lastName("last").userName(userName)
+                .email(userName + "@mail.com").password(password).role(role.name()).isActive(true).isNotLocked(true).build();
+    }
+
+    //"login=5,find=40" becomes a table of 45 entries a client picks one from at random
+    private static Operation[] parseMix(String mix) {
+        List<Operation> operations = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.trim().split("=");
+            Operation operation = Operation.valueOf(weight[0].trim().toUpperCase());
+            for (int i = Integer.parseInt(weight[1].trim()); i > 0; i--) {
+                operations.add(operation);
+            }
+        }
+        if(operations.isEmpty())
+        {
+            throw new IllegalArgumentException("load.mix has no operations: " + mix);
+        }
+        return operations.toArray(new Operation[0]);
+    }
+
+    private long run(int concurrency, int warmupSeconds, int durationSeconds) throws InterruptedException {
+        long start = System.nanoTime();
+        measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            clients.execute(() -> {
+                while (System.nanoTime() < end) {
+                    call(mix[ThreadLocalRandom.current().nextInt(mix.length)]);
+                }
+            });
+        }
+        TimeUnit.NANOSECONDS.sleep(measureFrom - start);
+        Map<String, Long> warmupStatements = StatementCountingInspector.snapshot();
+        clients.shutdown();
+        clients.awaitTermination(durationSeconds + 60, TimeUnit.SECONDS);
+        long measuredNanos = System.nanoTime() - measureFrom;
+        statements = subtract(StatementCountingInspector.snapshot(), warmupStatements);
+        return measuredNanos;
+    }
+
+    private void call(Operation operation) {
+        String userName = "user" + ThreadLocalRandom.current().nextInt(users);
+        long start = System.nanoTime();
+        boolean succeeded;
+        try {
+            succeeded = send(operation, userName) == 200;
+        } catch (IOException e) {
+            succeeded = false;
+        }
+        if(start >= measureFrom)
+        {
+            Result result = results.get(operation);
+            result.latencyMicros.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            if(!succeeded)
+            {
+                result.errors.increment();
+            }
+        }
+    }
+
+    private int send(Operation operation, String userName) throws IOException {
+        switch (operation) {
+            case LOGIN:
+                return post("/user/login", APPLICATION_JSON_VALUE, null,
+                        "{\"userName\":\"" + userName + "\",\"password\":\"" + PASSWORD + "\"}");
+            case FIND:
+                return get("/user/find/" + userName, authorization);
+            case LIST:
+                return get("/user/list", authorization);
+            case IMAGE:
+                return get("/user/image/profile/" + userName, null);
+            default:
+                return post("/user/update", APPLICATION_FORM_URLENCODED_VALUE, authorization,
+                        "currentUserName=" + userName + "&firstName=first" + ThreadLocalRandom.current().nextInt(1000)
+                                + "&lastName=last&userName=" + userName + "&email=" + userName + "%40mail.com&role=ROLE_USER"
+                                + "&isActive=true&nonLocked=true");
+        }
+    }
+
+    private int get(String path, String authorization) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        if(authorization != null)
+        {
+            connection.setRequestProperty(AUTHORIZATION, authorization);
+        }
+        return exhaust(connection);
+    }
+
+    private int post(String path, String contentType, String authorization, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty(CONTENT_TYPE, contentType);
+        if(authorization != null)
+        {
+            connection.setRequestProperty(AUTHORIZATION, authorization);
+        }
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return exhaust(connection);
+    }
+
+    //reading the whole body, error bodies included, lets the connection go back to the keep-alive pool
+    private int exhaust(HttpURLConnection connection) throws IOException {
+        int status = connection.getResponseCode();
+        try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if(body != null)
+            {
+                ByteStreams.exhaust(body);
+            }
+        }
+        return status;
+    }
+
+    private void report(int concurrency, long measuredNanos, File resultFolder) throws IOException {
+        double seconds = measuredNanos / 1e9;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("users", users);
+        summary.put("concurrency", concurrency);
+        summary.put("seconds", seconds);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long requests = 0;
+        resultFolder.mkdirs();
+        System.out.printf("%-36s %9s %7s %9s %9s %9s %9s %9s %9s %10s%n", "endpoint", "requests", "errors", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "sql/req");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = results.get(operation).latencyMicros;
+            long count = histogram.getTotalCount();
+            if(count == 0)
+            {
+                continue;
+            }
+            requests += count;
+            long errors = results.get(operation).errors.sum();
+            long operationStatements = statements.getOrDefault(operation.endpoint, 0L);
+            Map<String, Object> endpoint = new LinkedHashMap<>();
+            endpoint.put("requests", count);
+            endpoint.put("errors", errors);
+            endpoint.put("throughput", count / seconds);
+            endpoint.put("p50", millis(histogram, 50));
+            endpoint.put("p90", millis(histogram, 90));
+            endpoint.put("p99", millis(histogram, 99));
+            endpoint.put("p999", millis(histogram, 99.9));
+            endpoint.put("max", histogram.getMaxValue() / 1000.0);
+            endpoint.put("statements", operationStatements);
+            endpoint.put("statementsPerRequest", (double) operationStatements / count);
+            endpoints.put(operation.endpoint, endpoint);
+            System.out.printf("%-36s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %10.2f%n", operation.endpoint, count, errors,
+                    count / seconds, millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0, (double) operationStatements / count);
+            try (PrintStream hgrm = new PrintStream(new File(resultFolder, operation.name().toLowerCase() + ".hgrm"), "UTF-8")) {
+                histogram.outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+        long background = statements.getOrDefault(StatementCountingInspector.BACKGROUND, 0L);
+        System.out.printf("total %d requests, %.1f req/s, %d statements off the request threads%n", requests, requests / seconds, background);
+        summary.put("throughput", requests / seconds);
+        summary.put("endpoints", endpoints);
+        summary.put("statements", statements);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(resultFolder, "result.json"), summary);
+        System.out.println("results written to " + resultFolder.getAbsolutePath());
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static Map<String, Long> subtract(Map<String, Long> counts, Map<String, Long> before) {
+        Map<String, Long> difference = new LinkedHashMap<>();
+        counts.forEach((endpoint, count) -> difference.put(endpoint, count - before.getOrDefault(endpoint, 0L)));
+        return difference;
+    }
+}
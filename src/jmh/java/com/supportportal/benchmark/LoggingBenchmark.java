@@ -0,0 +1,120 @@
+package com.supportportal.benchmark;
+
+import com.google.common.io.ByteStreams;
+import com.supportportal.SupportportalApplication;
+import com.supportportal.domain.User;
+import com.supportportal.domain.UserPrincipal;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import com.supportportal.utility.JWTTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.supportportal.constant.SecurityConstant.TOKEN_PREFIX;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+//requests per second over http with the logging settings: off logs nothing, info is the default async console,
+//debug also logs every login, show-sql prints every statement the old way and sampled logs 1 in 10 statements
+//through the async console. the forked vm's console is read by the harness like a terminal would be
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(8)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final int USERS = 200;
+    private static final String PASSWORD = "password";
+
+    @Param({"off", "info", "debug", "show-sql", "sampled"})
+    private String logging;
+
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        List<String> arguments = new ArrayList<>();
+        arguments.add("--server.port=0");
+        switch (logging) {
+            case "off":
+                arguments.add("--logging.level.root=off");
+                break;
+            case "debug":
+                arguments.add("--logging.level.com.supportportal=debug");
+                break;
+            case "show-sql":
+                arguments.add("--spring.jpa.show-sql=true");
+                break;
+            case "sampled":
+                arguments.add("--sql-log.sample-rate=10");
+                break;
+            default:
+        }
+        context = new SpringApplicationBuilder(SupportportalApplication.class)
+                .profiles("test")
+                .run(arguments.toArray(new String[0]));
+        String password = context.getBean(BCryptPasswordEncoder.class).encode(PASSWORD);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder().userId("id" + i).userName("user" + i).email("user" + i + "@mail.com").password(password)
+                    .role(Role.ROLE_USER.name()).isActive(true).isNotLocked(true).build());
+        }
+        List<User> saved = context.getBean(UserRepository.class).saveAll(users);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/user/";
+        authorization = TOKEN_PREFIX + context.getBean(JWTTokenProvider.class).generateJWTToken(new UserPrincipal(saved.get(0)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long page() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + "page?size=20").openConnection();
+        connection.setRequestProperty(AUTHORIZATION, authorization);
+        return exhaust(connection);
+    }
+
+    @Benchmark
+    public long login() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + "login").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty(CONTENT_TYPE, APPLICATION_JSON_VALUE);
+        try (OutputStream body = connection.getOutputStream()) {
+            String userName = "user" + ThreadLocalRandom.current().nextInt(USERS);
+            body.write(("{\"userName\":\"" + userName + "\",\"password\":\"" + PASSWORD + "\"}").getBytes(StandardCharsets.UTF_8));
+        }
+        return exhaust(connection);
+    }
+
+    private long exhaust(HttpURLConnection connection) throws IOException {
+        if(connection.getResponseCode() != 200)
+        {
+            throw new IllegalStateException(connection.getURL() + " answered " + connection.getResponseCode());
+        }
+        try (InputStream body = connection.getInputStream()) {
+            return ByteStreams.exhaust(body);
+        }
+    }
+}
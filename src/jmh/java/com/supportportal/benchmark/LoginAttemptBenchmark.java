@@ -0,0 +1,64 @@
+package com.supportportal.benchmark;
+
+import com.supportportal.service.LoginAttempt;
+import com.supportportal.service.implementation.InMemoryLoginAttemptStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//failed logins counted from many threads at once, all of them against the same user (one attacked account) and
+//each against its own user (failures spread over many accounts). every operation records a failure, checks the
+//limit and resets the user once it is locked out, so the counts stay small
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class LoginAttemptBenchmark {
+
+    private static final String SHARED_USER_NAME = "attacked";
+
+    private LoginAttempt loginAttempt;
+
+    @State(Scope.Thread)
+    public static class ThreadUser {
+
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        private String userName;
+
+        @Setup
+        public void setUp() {
+            userName = "user" + THREADS.incrementAndGet();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        loginAttempt = new LoginAttempt(new InMemoryLoginAttemptStore(), new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public boolean sameUser() {
+        return recordFailure(SHARED_USER_NAME);
+    }
+
+    @Benchmark
+    public boolean distinctUsers(ThreadUser threadUser) {
+        return recordFailure(threadUser.userName);
+    }
+
+    private boolean recordFailure(String userName) {
+        loginAttempt.addUserToLoginAttempts(userName);
+        boolean exceeded = loginAttempt.hasExceededMaxAttempts(userName);
+        if(exceeded)
+        {
+            loginAttempt.evictUserFromLoginAttemptCache(userName);
+        }
+        return exceeded;
+    }
+}
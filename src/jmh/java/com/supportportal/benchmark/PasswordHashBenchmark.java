@@ -0,0 +1,53 @@
+package com.supportportal.benchmark;
+
+import com.supportportal.service.PasswordHasher;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+//bcrypt hashes per second against the cost factor, hashed one after another on the calling thread (the request
+//thread before) versus a batch handed to the PasswordHasher pool with one worker per core
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class PasswordHashBenchmark {
+
+    private static final int BATCH = 32;
+
+    @Param({"8", "10", "12"})
+    private int cost;
+
+    private BCryptPasswordEncoder encoder;
+    private PasswordHasher passwordHasher;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(cost);
+        passwordHasher = new PasswordHasher(encoder, 0, BATCH);
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Benchmark
+    public String callingThread() {
+        return encoder.encode("benchmark-password");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void hashingPool() {
+        CompletableFuture<?>[] hashes = new CompletableFuture<?>[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            hashes[i] = passwordHasher.encodeAsync("benchmark-password");
+        }
+        CompletableFuture.allOf(hashes).join();
+    }
+}
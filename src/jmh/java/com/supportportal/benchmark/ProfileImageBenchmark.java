@@ -0,0 +1,104 @@
+package com.supportportal.benchmark;
+
+import com.supportportal.utility.FileResponseWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.CacheControl;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.FileSystemUtils;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.MediaType.IMAGE_JPEG_VALUE;
+
+//requests per second of serving one profile image by reading it onto the heap (the previous getProfileImage)
+//versus FileResponseWriter, without a socket. run with -prof gc to see the allocation per request, the
+//previous implementation allocates the whole image every time
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ProfileImageBenchmark {
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Param({"16384", "262144", "2097152"})
+    private int imageSize;
+
+    private Path folder;
+    private Path image;
+    private FileResponseWriter fileResponseWriter;
+
+    @Setup
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("profile-image-benchmark");
+        byte[] content = new byte[imageSize];
+        ThreadLocalRandom.current().nextBytes(content);
+        image = Files.write(folder.resolve("image.jpg"), content);
+        fileResponseWriter = new FileResponseWriter(new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(folder);
+    }
+
+    @Benchmark
+    public void readAllBytes() throws IOException {
+        DISCARD.write(Files.readAllBytes(image));
+    }
+
+    @Benchmark
+    public void fileResponseWriter() throws IOException {
+        fileResponseWriter.write(image, IMAGE_JPEG_VALUE, CacheControl.noCache(), new MockHttpServletRequest("GET", "/user/image"), new DiscardingResponse());
+    }
+
+    //the mock response would otherwise collect the body in memory itself
+    private static class DiscardingResponse extends HttpServletResponseWrapper {
+
+        private DiscardingResponse() {
+            super(new MockHttpServletResponse());
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return new ServletOutputStream() {
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.supportportal.benchmark;
+
+import com.supportportal.domain.User;
+import com.supportportal.domain.UserPrincipal;
+import com.supportportal.enumeration.Role;
+import com.supportportal.filter.JWTAuthorizationFilter;
+import com.supportportal.utility.JWTTokenProvider;
+import com.supportportal.utility.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.supportportal.constant.SecurityConstant.TOKEN_PREFIX;
+
+//the per request security work: signing a token at login, reading its subject and authorities, the authorities of
+//a principal and the authorization filter end to end, once with the verified token cached and once verifying it
+//on every request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityHotPathBenchmark {
+
+    private static final String SECRET = "benchmark-secret";
+
+    @Param({"ROLE_USER", "ROLE_SUPER_ADMIN"})
+    private Role role;
+
+    private JWTTokenProvider jwtTokenProvider;
+    private UserPrincipal userPrincipal;
+    private String token;
+    private JWTAuthorizationFilter cachedFilter;
+    private JWTAuthorizationFilter uncachedFilter;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        User user = User.builder().userId("benchmark").firstName("first").lastName("last").userName("benchmark")
+                .email("benchmark@mail.com").password("password").isActive(true).isNotLocked(true).role(role.name()).build();
+        jwtTokenProvider = new JWTTokenProvider(SECRET);
+        userPrincipal = new UserPrincipal(user);
+        token = jwtTokenProvider.generateJWTToken(userPrincipal);
+        cachedFilter = new JWTAuthorizationFilter(jwtTokenProvider, new VerifiedTokenCache(), new SimpleMeterRegistry());
+        //a cache that keeps nothing, so every request verifies the signature again
+        uncachedFilter = new JWTAuthorizationFilter(jwtTokenProvider, new VerifiedTokenCache(0, 1, TimeUnit.MINUTES), new SimpleMeterRegistry());
+        request = new MockHttpServletRequest("GET", "/user/list");
+        request.addHeader(HttpHeaders.AUTHORIZATION, TOKEN_PREFIX + token);
+    }
+
+    @Benchmark
+    public String generateJWTToken() {
+        return jwtTokenProvider.generateJWTToken(userPrincipal);
+    }
+
+    @Benchmark
+    public String getSubject() {
+        return jwtTokenProvider.getSubject(token);
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> getAuthorities() {
+        return jwtTokenProvider.getAuthorities(token);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> userPrincipalAuthorities() {
+        return userPrincipal.getAuthorities();
+    }
+
+    @Benchmark
+    public Authentication filterCachedToken() throws ServletException, IOException {
+        return filter(cachedFilter);
+    }
+
+    @Benchmark
+    public Authentication filterVerifiedToken() throws ServletException, IOException {
+        return filter(uncachedFilter);
+    }
+
+    //the filter only authenticates a request whose context is empty, as it is at the start of every request
+    private Authentication filter(JWTAuthorizationFilter filter) throws ServletException, IOException {
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
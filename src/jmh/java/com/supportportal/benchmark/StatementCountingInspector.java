@@ -0,0 +1,46 @@
+package com.supportportal.benchmark;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+//counts the statements hibernate prepares by the endpoint whose request thread prepared them, keyed like
+//"GET /user/find/{userName}". statements prepared off a request thread (the scheduled flushes, or the request
+//executor when web.execution-mode is async) are counted as background
+public class StatementCountingInspector implements StatementInspector {
+
+    static final String BACKGROUND = "background";
+
+    private static final Map<String, LongAdder> STATEMENTS = new ConcurrentHashMap<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.computeIfAbsent(getEndpoint(), endpoint -> new LongAdder()).increment();
+        return sql;
+    }
+
+    static Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new HashMap<>();
+        STATEMENTS.forEach((endpoint, count) -> snapshot.put(endpoint, count.sum()));
+        return snapshot;
+    }
+
+    private String getEndpoint() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if(!(requestAttributes instanceof ServletRequestAttributes))
+        {
+            return BACKGROUND;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) requestAttributes).getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
@@ -0,0 +1,84 @@
+package com.supportportal.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supportportal.SupportportalApplication;
+import com.supportportal.domain.User;
+import com.supportportal.domain.UserPrincipal;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import com.supportportal.service.UserService;
+import com.supportportal.utility.JWTTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//bytes allocated per login (load the user, resolve its authorities, sign the token) and per list call of 1000
+//users, against the embedded test database. run with -prof gc and read gc.alloc.rate.norm
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class UserAllocationBenchmark {
+
+    private static final int USERS = 1000;
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private ConfigurableApplicationContext context;
+    private UserDetailsService userDetailsService;
+    private UserService userService;
+    private JWTTokenProvider jwtTokenProvider;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SupportportalApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        userDetailsService = context.getBean(UserDetailsService.class);
+        userService = context.getBean(UserService.class);
+        jwtTokenProvider = context.getBean(JWTTokenProvider.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            Role role = Role.values()[i % Role.values().length];
+            users.add(User.builder().userId("id" + i).userName("user" + i).email("user" + i + "@mail.com")
+                    .role(role.name()).isActive(true).isNotLocked(true).build());
+        }
+        context.getBean(UserRepository.class).saveAll(users);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String login() {
+        UserPrincipal userPrincipal = (UserPrincipal) userDetailsService.loadUserByUsername("user3");
+        return jwtTokenProvider.generateJWTToken(userPrincipal);
+    }
+
+    @Benchmark
+    public void list() throws IOException {
+        objectMapper.writeValue(DISCARD, userService.getUsers());
+    }
+}
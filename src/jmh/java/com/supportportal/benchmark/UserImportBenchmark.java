@@ -0,0 +1,79 @@
+package com.supportportal.benchmark;
+
+import com.supportportal.SupportportalApplication;
+import com.supportportal.domain.User;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import com.supportportal.service.UserBulkService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+//rows per second of importing users into the embedded test database: the bulk csv import versus the per user
+//path of /user/add (two existence queries and a save per user, without the password encoding)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+@OperationsPerInvocation(UserImportBenchmark.ROWS)
+public class UserImportBenchmark {
+
+    static final int ROWS = 2000;
+
+    private ConfigurableApplicationContext context;
+    private UserBulkService userBulkService;
+    private UserRepository userRepository;
+    private int invocation;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SupportportalApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        userBulkService = context.getBean(UserBulkService.class);
+        userRepository = context.getBean(UserRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long bulkImport() throws IOException {
+        String prefix = "bulk" + invocation++ + "-";
+        StringBuilder csv = new StringBuilder("userName,email,firstName,lastName,role\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(prefix).append(i).append(',').append(prefix).append(i).append("@mail.com,first,last,ROLE_USER\n");
+        }
+        return userBulkService.importUsers(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), true,
+                "http://localhost/user/image/profile/").getImported();
+    }
+
+    @Benchmark
+    public int singleInserts() {
+        String prefix = "single" + invocation++ + "-";
+        int imported = 0;
+        for (int i = 0; i < ROWS; i++) {
+            String userName = prefix + i;
+            if(userRepository.findUserByUserName(userName) == null && userRepository.findUserByEmail(userName + "@mail.com") == null)
+            {
+                userRepository.save(User.builder().userId(userName).userName(userName).email(userName + "@mail.com")
+                        .firstName("first").lastName("last").joinDate(new Date()).isActive(true).isNotLocked(true)
+                        .role(Role.ROLE_USER.name()).build());
+                imported++;
+            }
+        }
+        return imported;
+    }
+}
@@ -0,0 +1,93 @@
+package com.supportportal.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.supportportal.SupportportalApplication;
+import com.supportportal.domain.UserResponse;
+import com.supportportal.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//latency of serializing every user with the full list (findAll) versus the streaming endpoint, against the
+//embedded test database. both allocate about the same per user (-prof gc), the difference is what stays
+//reachable: the full list holds every entity until the response is written, the stream one fetch chunk
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+public class UserListingBenchmark {
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Param({"1000", "10000", "100000"})
+    private int userCount;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private ObjectMapper objectMapper;
+    private ObjectWriter userWriter;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SupportportalApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        userService = context.getBean(UserService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        userWriter = objectMapper.writerFor(UserResponse.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= userCount; id++) {
+            rows.add(new Object[]{id, "id" + id, "first" + id, "last" + id, "user" + id, "user" + id + "@mail.com", "ROLE_USER"});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate("insert into user (id, user_id, first_name, last_name, user_name, email, role, " +
+                "is_active, is_not_locked) values (?, ?, ?, ?, ?, ?, ?, true, true)", rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void fullList() throws IOException {
+        objectMapper.writeValue(DISCARD, userService.getUsers());
+    }
+
+    @Benchmark
+    public void streaming() throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(DISCARD)) {
+            generator.writeStartArray();
+            userService.streamUsers(user -> {
+                try {
+                    userWriter.writeValue(generator, user);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        }
+    }
+}
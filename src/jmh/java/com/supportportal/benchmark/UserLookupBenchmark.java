@@ -0,0 +1,84 @@
+package com.supportportal.benchmark;
+
+import com.supportportal.SupportportalApplication;
+import com.supportportal.domain.User;
+import com.supportportal.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.supportportal.constant.UserImplementationConstant.UNIQUE_EMAIL;
+import static com.supportportal.constant.UserImplementationConstant.UNIQUE_USER_NAME;
+
+//latency of the userName and email lookups behind login and every write, straight from the repository so the
+//user cache does not hide them. indexed=false drops the unique keys again to show the table scan they replace
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+public class UserLookupBenchmark {
+
+    private static final int INSERT_BATCH = 10_000;
+
+    @Param({"100000", "1000000"})
+    private int userCount;
+
+    @Param({"true", "false"})
+    private boolean indexed;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SupportportalApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        userRepository = context.getBean(UserRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+        for (long id = 1; id <= userCount; id++) {
+            rows.add(new Object[]{id, "id" + id, "first" + id, "last" + id, "user" + id, "user" + id + "@mail.com", "ROLE_USER"});
+            if(rows.size() == INSERT_BATCH || id == userCount)
+            {
+                jdbcTemplate.batchUpdate("insert into user (id, user_id, first_name, last_name, user_name, email, role, " +
+                        "is_active, is_not_locked) values (?, ?, ?, ?, ?, ?, ?, true, true)", rows);
+                rows.clear();
+            }
+        }
+        if(!indexed)
+        {
+            jdbcTemplate.execute("drop index " + UNIQUE_USER_NAME);
+            jdbcTemplate.execute("drop index " + UNIQUE_EMAIL);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public User findByUserName() {
+        return userRepository.findUserByUserName("user" + randomId());
+    }
+
+    @Benchmark
+    public User findByEmail() {
+        return userRepository.findUserByEmail("user" + randomId() + "@mail.com");
+    }
+
+    private int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, userCount + 1);
+    }
+}
@@ -0,0 +1,110 @@
+package com.supportportal.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supportportal.SupportportalApplication;
+import com.supportportal.domain.User;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import com.supportportal.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+//the list and page reads served from full User entities against the same reads served from UserResponse
+//projections, 1000 users in the embedded test database. run with -prof gc and read gc.alloc.rate.norm for the
+//bytes allocated per request, the bytes sent for each shape are printed when the benchmark starts
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class UserResponseBenchmark {
+
+    private static final int USERS = 1000;
+    private static final int PAGE_SIZE = 50;
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private UserService userService;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(SupportportalApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        userRepository = context.getBean(UserRepository.class);
+        userService = context.getBean(UserService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            Role role = Role.values()[i % Role.values().length];
+            users.add(User.builder().userId("id" + i).firstName("first" + i).lastName("last" + i).userName("user" + i)
+                    .email("user" + i + "@mail.com").password("$2a$10$" + String.format("%053d", i))
+                    .profileImageUrl("http://localhost:8080/user/image/profile/user" + i).joinDate(new Date())
+                    .role(role.name()).isActive(true).isNotLocked(true).build());
+        }
+        userRepository.saveAll(users);
+        printSize("entity list", userRepository.findAll());
+        printSize("response list", userService.getUsers());
+        printSize("entity page", userRepository.findAll(PageRequest.of(0, PAGE_SIZE, Sort.by("id"))).getContent());
+        printSize("response page", userService.getUsers(null, PAGE_SIZE));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void entityList() throws IOException {
+        objectMapper.writeValue(DISCARD, userRepository.findAll());
+    }
+
+    @Benchmark
+    public void responseList() throws IOException {
+        objectMapper.writeValue(DISCARD, userService.getUsers());
+    }
+
+    @Benchmark
+    public void entityPage() throws IOException {
+        objectMapper.writeValue(DISCARD, userRepository.findAll(PageRequest.of(0, PAGE_SIZE, Sort.by("id"))).getContent());
+    }
+
+    @Benchmark
+    public void responsePage() throws IOException {
+        objectMapper.writeValue(DISCARD, userService.getUsers(null, PAGE_SIZE));
+    }
+
+    private void printSize(String name, Object body) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        }
+        System.out.println(name + ": " + json.length + " bytes, " + compressed.size() + " bytes gzipped");
+    }
+}
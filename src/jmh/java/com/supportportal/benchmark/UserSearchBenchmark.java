@@ -0,0 +1,91 @@
+package com.supportportal.benchmark;
+
+import com.supportportal.SupportportalApplication;
+import com.supportportal.domain.UserSearchPage;
+import com.supportportal.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//latency of one page of /user/search against the embedded test database. a prefix search of one field and the
+//filters are answered from the indexes on the user table. h2 can not merge indexes, so the prefix search of all
+//four fields scans like the substring search does (mysql merges them)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+public class UserSearchBenchmark {
+
+    private static final int INSERT_BATCH = 10_000;
+    private static final String[] ROLES = {"ROLE_USER", "ROLE_HR", "ROLE_MANAGER", "ROLE_ADMIN", "ROLE_SUPER_ADMIN"};
+
+    @Param({"100000", "1000000"})
+    private int userCount;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SupportportalApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        userService = context.getBean(UserService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+        for (long id = 1; id <= userCount; id++) {
+            rows.add(new Object[]{id, "id" + id, "first" + id, "last" + id, "user" + id, "user" + id + "@mail.com",
+                    ROLES[(int) (id % ROLES.length)], id % 10 != 3, id % 50 != 0});
+            if(rows.size() == INSERT_BATCH || id == userCount)
+            {
+                jdbcTemplate.batchUpdate("insert into user (id, user_id, first_name, last_name, user_name, email, role, " +
+                        "is_active, is_not_locked) values (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserSearchPage prefix() {
+        return userService.searchUsers("user" + randomId(), null, false, null, null, null, 0, 50, "userName", false);
+    }
+
+    @Benchmark
+    public UserSearchPage prefixOfOneField() {
+        return userService.searchUsers("user" + randomId(), "userName", false, null, null, null, 0, 50, "userName", false);
+    }
+
+    @Benchmark
+    public UserSearchPage prefixWithFilters() {
+        return userService.searchUsers("user" + randomId(), "userName", false, "ROLE_USER", true, true, 0, 50, "userName", false);
+    }
+
+    @Benchmark
+    public UserSearchPage filtersOnly() {
+        return userService.searchUsers(null, null, false, "ROLE_ADMIN", false, null, 0, 50, "userName", false);
+    }
+
+    @Benchmark
+    public UserSearchPage substring() {
+        return userService.searchUsers("er" + randomId() + "@", null, true, null, null, null, 0, 50, "userName", false);
+    }
+
+    private int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, userCount / 100 + 1);
+    }
+}
@@ -0,0 +1,48 @@
+package com.supportportal.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supportportal.domain.User;
+import com.supportportal.domain.UserResponse;
+import com.supportportal.enumeration.Role;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+//one user written as json the way the responses are, the User entity against the UserResponse the endpoints
+//return, with the object mapper spring boot builds. run with -prof gc for the bytes allocated per user
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private User user;
+    private UserResponse userResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Date now = new Date();
+        user = User.builder().id(1L).userId("1234567890").firstName("first").lastName("last").userName("benchmark")
+                .email("benchmark@mail.com").password("password").profileImageUrl("http://localhost:8081/user/image/benchmark/benchmark.jpg")
+                .lastLoginDate(now).lastLoginDateDisplay(now).joinDate(now).role(Role.ROLE_ADMIN.name())
+                .isActive(true).isNotLocked(true).build();
+        userResponse = UserResponse.from(user);
+    }
+
+    @Benchmark
+    public byte[] user() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] userResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userResponse);
+    }
+}
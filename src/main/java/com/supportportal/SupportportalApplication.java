@@ -1,8 +1,13 @@
 package com.supportportal;
 
+import com.supportportal.utility.BCryptCostCalibrator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -15,8 +20,11 @@ import java.util.Collections;
 import static com.supportportal.constant.FileConstant.USER_FOLDER;
 
 @SpringBootApplication
+@EnableScheduling
 public class SupportportalApplication {
 
+	private Logger LOGGER = LoggerFactory.getLogger(getClass());
+
 	public static void main(String[] args) {
 
 		SpringApplication.run(SupportportalApplication.class, args);
@@ -40,10 +48,19 @@ public class SupportportalApplication {
 		return new CorsFilter(urlBasedCorsConfigurationSource);
 	}
 
+	//a fixed password.bcrypt.cost skips the calibration
 	@Bean
-	public BCryptPasswordEncoder getBCryptPasswordEncoder()
+	public BCryptPasswordEncoder getBCryptPasswordEncoder(@Value("${password.bcrypt.cost:0}") int cost,
+														  @Value("${password.bcrypt.target-millis}") long targetMillis,
+														  @Value("${password.bcrypt.minimum-cost}") int minimumCost,
+														  @Value("${password.bcrypt.maximum-cost}") int maximumCost)
 	{
-		return new BCryptPasswordEncoder();
+		if(cost == 0)
+		{
+			cost = BCryptCostCalibrator.calibrate(targetMillis, minimumCost, maximumCost);
+			LOGGER.info("Calibrated bcrypt cost {} for a target of {} ms per hash", cost, targetMillis);
+		}
+		return new BCryptPasswordEncoder(cost);
 	}
 
 }
@@ -0,0 +1,61 @@
+package com.supportportal.configuration;
+
+import com.supportportal.utility.ReadWriteRoutingDataSource;
+import com.supportportal.utility.ReadYourWritesTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+//the primary takes every write, spring.datasource.replica points at a read replica of it. without a replica
+//the read only transactions use the primary as well. the pools are not beans of their own, spring boot expects
+//a single DataSource
+@Configuration
+public class DataSourceConfiguration {
+
+    private static final String REPLICA_PREFIX = "spring.datasource.replica";
+
+    private Environment environment;
+    private List<HikariDataSource> pools = new ArrayList<>();
+
+    @Autowired
+    public DataSourceConfiguration(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, ReadYourWritesTracker readYourWritesTracker) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configurePool(primary, "primary", "spring.datasource.hikari");
+        HikariDataSource replica = null;
+        DataSourceProperties replicaProperties = Binder.get(environment).bind(REPLICA_PREFIX, DataSourceProperties.class).orElse(null);
+        if(replicaProperties != null && replicaProperties.getUrl() != null)
+        {
+            replica = replicaProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            replica.setReadOnly(true);
+            configurePool(replica, "replica", REPLICA_PREFIX + ".hikari");
+        }
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, readYourWritesTracker));
+    }
+
+    @PreDestroy
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private void configurePool(HikariDataSource pool, String name, String prefix) {
+        pool.setPoolName(name);
+        Binder.get(environment).bind(prefix, Bindable.ofInstance(pool));
+        pools.add(pool);
+    }
+}
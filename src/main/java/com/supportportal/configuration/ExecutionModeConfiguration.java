@@ -0,0 +1,86 @@
+package com.supportportal.configuration;
+
+import com.supportportal.enumeration.ExecutionMode;
+import com.supportportal.utility.CompletedDeferredResultHandler;
+import com.supportportal.utility.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+//web.execution-mode virtual hands every request to a virtual thread of its own instead of tomcat's fixed pool,
+//streamed responses are written on virtual threads too. needs a java 21 runtime, older ones keep the platform
+//threads. the async mode is BlockingRequestExecutor
+@Configuration
+public class ExecutionModeConfiguration implements WebMvcConfigurer, WebServerFactoryCustomizer<TomcatServletWebServerFactory> {
+
+    private Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private ExecutorService virtualThreads;
+
+    @Autowired
+    public ExecutionModeConfiguration(@Value("${web.execution-mode:platform}") ExecutionMode executionMode) {
+        if(executionMode == ExecutionMode.VIRTUAL)
+        {
+            virtualThreads = VirtualThreads.newVirtualThreadPerTaskExecutor();
+            if(virtualThreads == null)
+            {
+                LOGGER.warn("Virtual threads need java 21 or later, running {} on platform threads", System.getProperty("java.version"));
+            }
+        }
+    }
+
+    @Override
+    public void customize(TomcatServletWebServerFactory factory) {
+        if(virtualThreads != null)
+        {
+            factory.addConnectorCustomizers(connector -> connector.getProtocolHandler().setExecutor(virtualThreads));
+        }
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        if(virtualThreads != null)
+        {
+            configurer.setTaskExecutor(new TaskExecutorAdapter(virtualThreads));
+        }
+    }
+
+    //the reads BlockingRequestExecutor runs on the request thread are written without async processing. the handler
+    //goes before spring's own, which would take every DeferredResult
+    @Bean
+    public SmartInitializingSingleton completedDeferredResults(ObjectProvider<RequestMappingHandlerAdapter> requestMappingHandlerAdapter) {
+        return () -> requestMappingHandlerAdapter.ifAvailable(adapter -> {
+            List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>();
+            handlers.add(new CompletedDeferredResultHandler(new HandlerMethodReturnValueHandlerComposite()
+                    .addHandlers(adapter.getReturnValueHandlers())));
+            handlers.addAll(adapter.getReturnValueHandlers());
+            adapter.setReturnValueHandlers(handlers);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if(virtualThreads != null)
+        {
+            virtualThreads.shutdown();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.supportportal.configuration;
+
+import com.google.common.cache.CacheStats;
+import com.supportportal.service.EmailDispatcher;
+import com.supportportal.service.LastLoginRecorder;
+import com.supportportal.service.PasswordHasher;
+import com.supportportal.service.ProfileImageProcessor;
+import com.supportportal.service.UserCache;
+import com.supportportal.service.UserService;
+import com.supportportal.utility.BlockingRequestExecutor;
+import com.supportportal.utility.CredentialVerificationCache;
+import com.supportportal.utility.MethodTimingInterceptor;
+import com.supportportal.utility.ReadYourWritesTracker;
+import com.supportportal.utility.VerifiedTokenCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.data.repository.Repository;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+//the meters behind /actuator/prometheus. calls into UserService and the repositories are timed per method, the
+//hot paths record into meters built up front, and the counts the services already keep are read when the
+//endpoint is scraped instead of being recorded a second time
+@Configuration
+public class MetricsConfiguration {
+
+    private static final String CACHE_GETS = "cache.gets";
+    private static final String CACHE = "cache";
+    private static final String RESULT = "result";
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor userServiceTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return timingAdvisor(meterRegistry, "supportportal.service", UserService.class);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor repositoryTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return timingAdvisor(meterRegistry, "supportportal.repository", Repository.class);
+    }
+
+    @Bean
+    public MeterBinder applicationMeters(UserCache userCache, VerifiedTokenCache verifiedTokenCache,
+                                         CredentialVerificationCache credentialVerificationCache, PasswordHasher passwordHasher,
+                                         ProfileImageProcessor profileImageProcessor, EmailDispatcher emailDispatcher,
+                                         LastLoginRecorder lastLoginRecorder, BlockingRequestExecutor blockingRequestExecutor,
+                                         ReadYourWritesTracker readYourWritesTracker) {
+        return registry -> {
+            bindCacheStats(registry, "users-by-username", userCache, UserCache::getUserNameStats);
+            bindCacheStats(registry, "users-by-email", userCache, UserCache::getEmailStats);
+
+            cacheGets(registry, "verified-tokens", "hit", verifiedTokenCache, VerifiedTokenCache::getHitCount);
+            cacheGets(registry, "verified-tokens", "miss", verifiedTokenCache, VerifiedTokenCache::getMissCount);
+            FunctionCounter.builder("cache.evictions", verifiedTokenCache, VerifiedTokenCache::getEvictionCount)
+                    .tag(CACHE, "verified-tokens").register(registry);
+            Gauge.builder("cache.size", verifiedTokenCache, VerifiedTokenCache::getSize).tag(CACHE, "verified-tokens").register(registry);
+
+            cacheGets(registry, "verified-credentials", "hit", credentialVerificationCache, CredentialVerificationCache::getHitCount);
+            cacheGets(registry, "verified-credentials", "miss", credentialVerificationCache, CredentialVerificationCache::getMissCount);
+            Gauge.builder("cache.size", credentialVerificationCache, CredentialVerificationCache::getSize)
+                    .tag(CACHE, "verified-credentials").register(registry);
+
+            Gauge.builder("password.hash.queue", passwordHasher, PasswordHasher::getQueueDepth).register(registry);
+            Gauge.builder("password.hash.active", passwordHasher, PasswordHasher::getActiveCount).register(registry);
+            FunctionTimer.builder("password.hash", passwordHasher, PasswordHasher::getHashedCount,
+                    hasher -> hasher.getAverageHashingMillis() * hasher.getHashedCount(), TimeUnit.MILLISECONDS).register(registry);
+
+            Gauge.builder("image.processing.queue", profileImageProcessor, ProfileImageProcessor::getQueueDepth).register(registry);
+            FunctionCounter.builder("image.processing.failed", profileImageProcessor, ProfileImageProcessor::getFailedCount).register(registry);
+            FunctionTimer.builder("image.processing", profileImageProcessor, ProfileImageProcessor::getProcessedCount,
+                    processor -> processor.getAverageProcessingMillis() * processor.getProcessedCount(), TimeUnit.MILLISECONDS).register(registry);
+
+            //counts the pending outbox rows, one query per scrape
+            Gauge.builder("email.queue", emailDispatcher, EmailDispatcher::getQueueDepth).register(registry);
+            FunctionCounter.builder("email.failed", emailDispatcher, EmailDispatcher::getFailedCount).register(registry);
+            FunctionTimer.builder("email.sent", emailDispatcher, EmailDispatcher::getSentCount,
+                    dispatcher -> dispatcher.getAverageSendLatencyMillis() * dispatcher.getSentCount(), TimeUnit.MILLISECONDS).register(registry);
+
+            Gauge.builder("login.last-login.pending", lastLoginRecorder, LastLoginRecorder::getPendingCount).register(registry);
+
+            Gauge.builder("web.async.queue", blockingRequestExecutor, BlockingRequestExecutor::getQueueDepth).register(registry);
+            Gauge.builder("web.async.active", blockingRequestExecutor, BlockingRequestExecutor::getActiveCount).register(registry);
+            FunctionCounter.builder("web.async.completed", blockingRequestExecutor, BlockingRequestExecutor::getCompletedCount).register(registry);
+
+            FunctionCounter.builder("datasource.reads", readYourWritesTracker, ReadYourWritesTracker::getReplicaReads)
+                    .tag("target", "replica").register(registry);
+            FunctionCounter.builder("datasource.reads", readYourWritesTracker, ReadYourWritesTracker::getPrimaryReads)
+                    .tag("target", "primary").register(registry);
+            FunctionCounter.builder("datasource.writes", readYourWritesTracker, ReadYourWritesTracker::getWrites).register(registry);
+        };
+    }
+
+    private static Advisor timingAdvisor(ObjectProvider<MeterRegistry> meterRegistry, String name, Class<?> type) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new ComposablePointcut(new RootClassFilter(type)),
+                new MethodTimingInterceptor(meterRegistry, name, type));
+        advisor.setOrder(0);
+        return advisor;
+    }
+
+    //the meters only hold the object they read weakly, so they are given the bean and not a method reference to it
+    private static void bindCacheStats(MeterRegistry registry, String cache, UserCache userCache, Function<UserCache, CacheStats> stats) {
+        cacheGets(registry, cache, "hit", userCache, source -> stats.apply(source).hitCount());
+        cacheGets(registry, cache, "miss", userCache, source -> stats.apply(source).missCount());
+        FunctionCounter.builder("cache.evictions", userCache, source -> stats.apply(source).evictionCount()).tag(CACHE, cache).register(registry);
+    }
+
+    private static <T> void cacheGets(MeterRegistry registry, String cache, String result, T source, ToDoubleFunction<T> count) {
+        FunctionCounter.builder(CACHE_GETS, source, count).tag(CACHE, cache).tag(RESULT, result).register(registry);
+    }
+}
@@ -0,0 +1,56 @@
+package com.supportportal.configuration;
+
+import com.supportportal.constant.SecurityConstant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.config.annotation.authentication.configurers.provisioning.InMemoryUserDetailsManagerConfigurer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+//the prometheus scrape endpoint is checked before the portal's chain and only takes basic auth from the scrape
+//user configured here. portal users and their tokens are not accepted, and without a password nobody is
+@Configuration
+@Order(1)
+public class ScrapeSecurityConfiguration extends WebSecurityConfigurerAdapter {
+
+    private String userName;
+    private String password;
+    private BCryptPasswordEncoder bCryptPasswordEncoder;
+
+    @Autowired
+    public ScrapeSecurityConfiguration(@Value("${security.scrape.username}") String userName,
+                                       @Value("${security.scrape.password:}") String password,
+                                       BCryptPasswordEncoder bCryptPasswordEncoder) {
+        this.userName = userName;
+        this.password = password;
+        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+    }
+
+    @Override
+    protected void configure(AuthenticationManagerBuilder auth) throws Exception {
+        InMemoryUserDetailsManagerConfigurer<AuthenticationManagerBuilder> users = auth.inMemoryAuthentication()
+                .passwordEncoder(bCryptPasswordEncoder);
+        if(!password.isEmpty())
+        {
+            users.withUser(userName).password(bCryptPasswordEncoder.encode(password)).authorities(SecurityConstant.METRICS_AUTHORITY);
+        }
+    }
+
+    @Override
+    protected void configure(HttpSecurity http) throws Exception {
+        http.requestMatchers().antMatchers(SecurityConstant.SCRAPE_URL)
+                .and()
+                .csrf().disable()
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                .and()
+                .authorizeRequests()
+                .anyRequest().hasAuthority(SecurityConstant.METRICS_AUTHORITY)
+                .and()
+                .httpBasic();
+    }
+}
@@ -4,11 +4,14 @@ import com.supportportal.constant.SecurityConstant;
 import com.supportportal.filter.JWTAccessDeniedHandler;
 import com.supportportal.filter.JWTAuthorizationEntryPoint;
 import com.supportportal.filter.JWTAuthorizationFilter;
+import com.supportportal.utility.CachingDaoAuthenticationProvider;
+import com.supportportal.utility.CredentialVerificationCache;
 import com.supportportal.utility.JWTTokenProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
@@ -31,6 +34,8 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter  {
     private JWTAccessDeniedHandler jwtAccessDeniedHandler;
     private BCryptPasswordEncoder bCryptPasswordEncoder;
     private UserDetailsService userDetailsService;
+    private CredentialVerificationCache credentialVerificationCache;
+    private AuthenticationEventPublisher authenticationEventPublisher;
 
     @Autowired
     public SecurityConfiguration(JWTTokenProvider jwtTokenProvider,
@@ -38,18 +43,27 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter  {
                                  JWTAuthorizationFilter jwtAuthorizationFilter,
                                  JWTAccessDeniedHandler jwtAccessDeniedHandler,
                                  BCryptPasswordEncoder bCryptPasswordEncoder,
-                                 @Qualifier("UserDetailsService") UserDetailsService userDetailsService) {
+                                 @Qualifier("UserDetailsService") UserDetailsService userDetailsService,
+                                 CredentialVerificationCache credentialVerificationCache,
+                                 AuthenticationEventPublisher authenticationEventPublisher) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.jwtAuthorizationEntryPoint = jwtAuthorizationEntryPoint;
         this.jwtAuthorizationFilter = jwtAuthorizationFilter;
         this.jwtAccessDeniedHandler = jwtAccessDeniedHandler;
         this.bCryptPasswordEncoder = bCryptPasswordEncoder;
         this.userDetailsService = userDetailsService;
+        this.credentialVerificationCache = credentialVerificationCache;
+        this.authenticationEventPublisher = authenticationEventPublisher;
     }
 
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(userDetailsService).passwordEncoder(bCryptPasswordEncoder);
+        CachingDaoAuthenticationProvider authenticationProvider = new CachingDaoAuthenticationProvider(credentialVerificationCache);
+        authenticationProvider.setUserDetailsService(userDetailsService);
+        authenticationProvider.setPasswordEncoder(bCryptPasswordEncoder);
+        auth.authenticationProvider(authenticationProvider);
+        //the login listeners only hear about logins through this manager when it is given the publisher
+        auth.authenticationEventPublisher(authenticationEventPublisher);
     }
 
     @Override
@@ -14,4 +14,9 @@ public class EmailConstant {
     public static final int DEFAULT_PORT = 465;
     public static final String SMTP_STARTTLS_ENABLE = "mail.smtp.starttls.enable";
     public static final String SMTP_STARTTLS_REQUIRED = "mail.smtp.starttls.required";
+    public static final String SMTP_CONNECTION_TIMEOUT = ".connectiontimeout";
+    public static final String SMTP_TIMEOUT = ".timeout";
+    public static final int SMTP_TIMEOUT_MILLIS = 10_000;
+    public static final long CLAIM_LEASE_MILLIS = 300_000; //a claimed email is retried by any node after 5 minutes
+    public static final long MAXIMUM_RETRY_BACKOFF_MILLIS = 3_600_000;
 }
@@ -11,4 +11,28 @@ public class FileConstant {
     public static final String FORWARD_SLASH = "/";
     public static final String NOT_AN_IMAGE_FILE = " is not an image file. Please upload an image file";
     public static final String TEMP_PROFILE_IMAGE_BASE_URL = "https://robohash.org/";
+    public static final String VERSION_PARAMETER = "v";
+    public static final long IMAGE_CACHE_MAX_AGE_DAYS = 365;
+    public static final String IMAGE_STORE_FOLDER = System.getProperty("user.home") + "/supportportal/image/";
+    public static final String STORED_IMAGE_PATH = "/user/image/hash/";
+    //largest first, each variant is scaled from the one before it
+    public static final int[] PROFILE_IMAGE_SIZES = {512, 128, 32};
+    //a 6000x4000 camera picture, about 100 MB once decoded. larger uploads are rejected before they are decoded
+    public static final long MAXIMUM_IMAGE_PIXELS = 24_000_000;
+    //how long a committed upload waits for room in the full queue of the image workers before it is dropped
+    public static final long IMAGE_HANDOFF_TIMEOUT_SECONDS = 30;
+    public static final String PNG_EXTENSION = "png";
+    public static final int AVATAR_SIZE = 120;
+    public static final int AVATAR_MARGIN = 10;
+    public static final long AVATAR_CACHE_MAXIMUM_BYTES = 16 * 1024 * 1024;
+    //clients revalidate with the etag after this, the identicon may have been replaced by the upstream image
+    public static final long AVATAR_CACHE_MAX_AGE_HOURS = 1;
+    public static final long UPSTREAM_AVATAR_EXPIRATION_HOURS = 24;
+    public static final int UPSTREAM_AVATAR_TIMEOUT_MILLIS = 3000;
+    public static final int UPSTREAM_AVATAR_MAXIMUM_BYTES = 1024 * 1024;
+    public static final long AVATAR_CACHE_EXPIRATION_MINUTES = 10;
+    public static final int UPSTREAM_AVATAR_THREADS = 2;
+    public static final int UPSTREAM_AVATAR_QUEUE_SIZE = 100;
+    public static final String IMAGE_SERVED_BYTES_METRIC = "image.served.bytes";
+    public static final String IMAGE_SOURCE_TAG = "source";
 }
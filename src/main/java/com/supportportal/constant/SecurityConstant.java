@@ -12,6 +12,14 @@ public class SecurityConstant {
     public static final String FORBIDDEN_MESSAGE = "You need to login to access the page";
     public static final String ACCESS_DENIED_MESSAGE = "You do not have permission to access the page";
     public static final String OPTIONS_HTTP_METHOD="OPTIONS";
-    public static final String[] PUBLIC_URLS = {"/user/login","/user/register","/user/image/**"};
+    public static final long TOKEN_CACHE_MAXIMUM_SIZE = 10_000;
+    public static final long TOKEN_CACHE_EXPIRATION_MINUTES = 10;
+    public static final long CREDENTIAL_CACHE_MAXIMUM_SIZE = 10_000;
+    public static final String LOGIN_ATTEMPTS_METRIC = "login.attempts";
+    public static final String OUTCOME_TAG = "outcome";
+    //the scrape endpoint is meant for the prometheus server inside the network, it has its own basic auth user
+    public static final String SCRAPE_URL = "/actuator/prometheus";
+    public static final String METRICS_AUTHORITY = "metrics:read";
+    public static final String[] PUBLIC_URLS = {"/user/login","/user/register","/user/image/**","/actuator/health"};
     //public static final String[] PUBLIC_URLS = {"**"};
 }
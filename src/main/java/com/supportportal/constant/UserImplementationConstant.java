@@ -7,4 +7,18 @@ public class UserImplementationConstant {
     public static final String NO_USER_FOUND_BY_EMAIL = "No user found by email";
     public static final String AN_EMAIL_WITH_NEW_PASSWORD_SENT_TO = "An email with new password sent to ";
     public static final String USER_DELETED_SUCCESSFULLY = "user deleted successfully";
+    public static final String UNIQUE_USER_NAME = "uk_user_user_name";
+    public static final String UNIQUE_EMAIL = "uk_user_email";
+    public static final String UNIQUE_USER_ID = "uk_user_user_id";
+    public static final String DEFAULT_PAGE_SIZE = "50";
+    public static final int MAXIMUM_PAGE_SIZE = 500;
+    public static final String[] SEARCH_FIELDS = {"userName", "email", "firstName", "lastName"};
+    public static final String DEFAULT_SEARCH_SORT = "userName";
+    public static final String[] SEARCH_SORT_FIELDS = {"userName", "email", "firstName", "lastName", "joinDate"};
+    public static final String STREAM_FETCH_SIZE = "500";
+    public static final int IMPORT_CHUNK_SIZE = 500;
+    public static final int MAXIMUM_REPORTED_REJECTIONS = 100;
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final long READ_YOUR_WRITES_MAXIMUM_SIZE = 10_000;
 }
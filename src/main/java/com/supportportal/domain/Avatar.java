@@ -0,0 +1,20 @@
+package com.supportportal.domain;
+
+//a rendered default profile image and the validator clients can revalidate it with
+public class Avatar {
+    private final byte[] image;
+    private final String eTag;
+
+    public Avatar(byte[] image, String eTag) {
+        this.image = image;
+        this.eTag = eTag;
+    }
+
+    public byte[] getImage() {
+        return image;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+}
@@ -0,0 +1,134 @@
+package com.supportportal.domain;
+
+import com.supportportal.enumeration.EmailStatus;
+
+import javax.persistence.*;
+import java.util.Date;
+
+//an email waiting in the outbox, written in the same transaction as the change that triggered it. the indexes
+//serve the dispatcher's claim and queue depth queries and the purge of sent emails
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, nextAttemptAt"),
+        @Index(name = "idx_email_outbox_status_sent_at", columnList = "status, sentAt")
+})
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(nullable = false, updatable = false)
+    private Long id;
+    private String recipient;
+    private String cc;
+    private String subject;
+    @Column(length = 2000)
+    private String body;
+    @Enumerated(EnumType.STRING)
+    private EmailStatus status;
+    private int attempts;
+    private Date nextAttemptAt;
+    private Date createdAt;
+    private Date sentAt;
+    private String lastError;
+
+    public EmailOutbox() {
+    }
+
+    public EmailOutbox(String recipient, String cc, String subject, String body) {
+        this.recipient = recipient;
+        this.cc = cc;
+        this.subject = subject;
+        this.body = body;
+        this.status = EmailStatus.PENDING;
+        this.createdAt = new Date();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public String getCc() {
+        return cc;
+    }
+
+    public void setCc(String cc) {
+        this.cc = cc;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public EmailStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(EmailStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Date getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Date nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Date getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(Date sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,48 @@
+package com.supportportal.domain;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+@Entity
+public class LoginAttemptCounter {
+
+    @Id
+    @Column(nullable = false, updatable = false)
+    private String userName;
+    private int attempts;
+    private long windowStart;
+
+    public LoginAttemptCounter() {
+    }
+
+    public LoginAttemptCounter(String userName, int attempts, long windowStart) {
+        this.userName = userName;
+        this.attempts = attempts;
+        this.windowStart = windowStart;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public long getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(long windowStart) {
+        this.windowStart = windowStart;
+    }
+}
@@ -0,0 +1,49 @@
+package com.supportportal.domain;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.util.Date;
+
+@Entity
+public class StoredImage {
+
+    @Id
+    @Column(nullable = false, updatable = false, length = 64)
+    private String hash;
+    private int referenceCount;
+    //when the last reference went away, the image is collected a grace period later
+    private Date unreferencedSince;
+
+    public StoredImage() {
+    }
+
+    public StoredImage(String hash, int referenceCount) {
+        this.hash = hash;
+        this.referenceCount = referenceCount;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public int getReferenceCount() {
+        return referenceCount;
+    }
+
+    public void setReferenceCount(int referenceCount) {
+        this.referenceCount = referenceCount;
+    }
+
+    public Date getUnreferencedSince() {
+        return unreferencedSince;
+    }
+
+    public void setUnreferencedSince(Date unreferencedSince) {
+        this.unreferencedSince = unreferencedSince;
+    }
+}
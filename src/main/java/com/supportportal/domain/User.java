@@ -1,18 +1,36 @@
 package com.supportportal.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.supportportal.enumeration.Role;
 import lombok.Builder;
 
 import javax.persistence.*;
 import java.io.Serializable;
 import java.util.Date;
 
+import static com.supportportal.constant.UserImplementationConstant.*;
+
 @Entity
 @Builder
+//mirrors the keys and indexes the migrations in db/migration create. the unique keys back lookups and are what
+//detects a taken userName or email. prefix searches of /user/search use these as well. role and the status flags
+//have too few values to be worth an index, one on them gets picked over the far more selective name index when
+//both are filtered on
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = UNIQUE_USER_NAME, columnNames = "userName"),
+        @UniqueConstraint(name = UNIQUE_EMAIL, columnNames = "email"),
+        @UniqueConstraint(name = UNIQUE_USER_ID, columnNames = "userId")
+}, indexes = {
+        @Index(name = "idx_user_first_name", columnList = "firstName"),
+        @Index(name = "idx_user_last_name", columnList = "lastName")
+})
 public class User implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    //ids are reserved 50 at a time, so bulk inserts can be batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_sequence")
+    @SequenceGenerator(name = "user_sequence", sequenceName = "user_sequence", allocationSize = 50)
     @Column(nullable = false,updatable = false)
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private Long id;
@@ -28,15 +46,16 @@ public class User implements Serializable {
     private Date lastLoginDateDisplay;
     private Date joinDate;
     private String role; //ROLE_USER , ROLE_ADMIN
-    private String[] authorities; //{update, create, delete}
     private boolean isActive;
     private boolean isNotLocked;
+    @JsonIgnore
+    private String profileImageHash; //the stored image profileImageUrl points at, null for none
 
 
     public User() {
     }
 
-    public User(Long id, String userId, String firstName, String lastName, String userName, String password, String email, String profileImageUrl, Date lastLoginDate, Date lastLoginDateDisplay, Date joinDate, String role, String[] authorities, boolean isActive, boolean isNotLocked) {
+    public User(Long id, String userId, String firstName, String lastName, String userName, String password, String email, String profileImageUrl, Date lastLoginDate, Date lastLoginDateDisplay, Date joinDate, String role, boolean isActive, boolean isNotLocked, String profileImageHash) {
         this.id = id;
         this.userId = userId;
         this.firstName = firstName;
@@ -49,9 +68,9 @@ public class User implements Serializable {
         this.lastLoginDateDisplay = lastLoginDateDisplay;
         this.joinDate = joinDate;
         this.role = role;
-        this.authorities = authorities;
         this.isActive = isActive;
         this.isNotLocked = isNotLocked;
+        this.profileImageHash = profileImageHash;
     }
 
     public Long getId() {
@@ -150,12 +169,10 @@ public class User implements Serializable {
         this.role = role;
     }
 
+    //derived from the role, it is not stored per user
     public String[] getAuthorities() {
-        return authorities;
-    }
-
-    public void setAuthorities(String[] authorities) {
-        this.authorities = authorities;
+        Role role = Role.fromName(this.role);
+        return role == null ? new String[0] : role.getAuthorities();
     }
 
     public boolean isActive() {
@@ -173,4 +190,12 @@ public class User implements Serializable {
     public void setNotLocked(boolean notLocked) {
         isNotLocked = notLocked;
     }
+
+    public String getProfileImageHash() {
+        return profileImageHash;
+    }
+
+    public void setProfileImageHash(String profileImageHash) {
+        this.profileImageHash = profileImageHash;
+    }
 }
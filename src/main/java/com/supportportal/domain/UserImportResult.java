@@ -0,0 +1,35 @@
+package com.supportportal.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//outcome of a bulk import, rejections carry the record number and the reason, only the first few are kept
+public class UserImportResult {
+    private long imported;
+    private long rejected;
+    private List<String> rejections = new ArrayList<>();
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<String> getRejections() {
+        return rejections;
+    }
+
+    public void setRejections(List<String> rejections) {
+        this.rejections = rejections;
+    }
+}
@@ -0,0 +1,33 @@
+package com.supportportal.domain;
+
+import java.util.List;
+
+//one keyset page of users, nextCursor is passed as after to get the next page and is null on the last page
+public class UserPage {
+    private List<UserResponse> users;
+    private Long nextCursor;
+
+    public UserPage() {
+    }
+
+    public UserPage(List<UserResponse> users, Long nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<UserResponse> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<UserResponse> users) {
+        this.users = users;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -1,14 +1,11 @@
 package com.supportportal.domain;
 
+import com.supportportal.enumeration.Role;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.stream.Collectors;
-
-import static java.util.Arrays.stream;
+import java.util.Collections;
 
 public class UserPrincipal implements UserDetails {
     private User user;
@@ -17,10 +14,15 @@ public class UserPrincipal implements UserDetails {
         this.user = user;
     }
 
+    public User getUser() {
+        return this.user;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
 
-        return stream(this.user.getAuthorities()).map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+        Role role = Role.fromName(this.user.getRole());
+        return role == null ? Collections.emptySet() : role.getGrantedAuthorities();
     }
 
     @Override
@@ -0,0 +1,108 @@
+package com.supportportal.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.Date;
+
+//one user in a bulk import or export file, csv columns are matched by their header names
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonPropertyOrder({"userId", "firstName", "lastName", "userName", "email", "role", "active", "notLocked", "joinDate"})
+public class UserRecord {
+    private String userId;
+    private String firstName;
+    private String lastName;
+    private String userName;
+    private String email;
+    private String role;
+    private Boolean active;
+    private Boolean notLocked;
+    private Date joinDate;
+
+    public UserRecord() {
+    }
+
+    public UserRecord(UserResponse user) {
+        this.userId = user.getUserId();
+        this.firstName = user.getFirstName();
+        this.lastName = user.getLastName();
+        this.userName = user.getUserName();
+        this.email = user.getEmail();
+        this.role = user.getRole();
+        this.active = user.isActive();
+        this.notLocked = user.isNotLocked();
+        this.joinDate = user.getJoinDate();
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public Boolean getNotLocked() {
+        return notLocked;
+    }
+
+    public void setNotLocked(Boolean notLocked) {
+        this.notLocked = notLocked;
+    }
+
+    public Date getJoinDate() {
+        return joinDate;
+    }
+
+    public void setJoinDate(Date joinDate) {
+        this.joinDate = joinDate;
+    }
+}
@@ -0,0 +1,112 @@
+package com.supportportal.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.supportportal.enumeration.Role;
+
+import java.util.Date;
+
+//what the read endpoints send for a user. the list queries select it straight from the columns it needs, so
+//those reads never load the password hash or build a managed entity. serializes to the same fields as User,
+//minus the ones that are null
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserResponse {
+    @JsonIgnore
+    private final Long id;
+    private final String userId;
+    private final String firstName;
+    private final String lastName;
+    private final String userName;
+    private final String email;
+    private final String profileImageUrl;
+    private final Date lastLoginDate;
+    private final Date lastLoginDateDisplay;
+    private final Date joinDate;
+    private final String role;
+    private final boolean isActive;
+    private final boolean isNotLocked;
+
+    public UserResponse(Long id, String userId, String firstName, String lastName, String userName, String email, String profileImageUrl,
+                        Date lastLoginDate, Date lastLoginDateDisplay, Date joinDate, String role, boolean isActive, boolean isNotLocked) {
+        this.id = id;
+        this.userId = userId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.userName = userName;
+        this.email = email;
+        this.profileImageUrl = profileImageUrl;
+        this.lastLoginDate = lastLoginDate;
+        this.lastLoginDateDisplay = lastLoginDateDisplay;
+        this.joinDate = joinDate;
+        this.role = role;
+        this.isActive = isActive;
+        this.isNotLocked = isNotLocked;
+    }
+
+    public static UserResponse from(User user) {
+        if(user == null)
+        {
+            return null;
+        }
+        return new UserResponse(user.getId(), user.getUserId(), user.getFirstName(), user.getLastName(), user.getUserName(),
+                user.getEmail(), user.getProfileImageUrl(), user.getLastLoginDate(), user.getLastLoginDateDisplay(),
+                user.getJoinDate(), user.getRole(), user.isActive(), user.isNotLocked());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getProfileImageUrl() {
+        return profileImageUrl;
+    }
+
+    public Date getLastLoginDate() {
+        return lastLoginDate;
+    }
+
+    public Date getLastLoginDateDisplay() {
+        return lastLoginDateDisplay;
+    }
+
+    public Date getJoinDate() {
+        return joinDate;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String[] getAuthorities() {
+        Role role = Role.fromName(this.role);
+        return role == null ? new String[0] : role.getAuthorities();
+    }
+
+    public boolean isActive() {
+        return isActive;
+    }
+
+    public boolean isNotLocked() {
+        return isNotLocked;
+    }
+}
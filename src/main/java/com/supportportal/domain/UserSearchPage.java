@@ -0,0 +1,63 @@
+package com.supportportal.domain;
+
+import java.util.List;
+
+//one page of /user/search results, page is zero based
+public class UserSearchPage {
+    private List<UserResponse> users;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+
+    public UserSearchPage() {
+    }
+
+    public UserSearchPage(List<UserResponse> users, int page, int size, long totalElements, int totalPages) {
+        this.users = users;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+    }
+
+    public List<UserResponse> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<UserResponse> users) {
+        this.users = users;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(int totalPages) {
+        this.totalPages = totalPages;
+    }
+}
@@ -0,0 +1,31 @@
+package com.supportportal.domain;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Date;
+import java.util.List;
+
+//result of verifying a jwt token once: everything the filter needs without decoding the token again
+public class VerifiedToken {
+    private final String subject;
+    private final List<GrantedAuthority> authorities;
+    private final Date expiresAt;
+
+    public VerifiedToken(String subject, List<GrantedAuthority> authorities, Date expiresAt) {
+        this.subject = subject;
+        this.authorities = authorities;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+}
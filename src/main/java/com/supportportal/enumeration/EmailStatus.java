@@ -0,0 +1,7 @@
+package com.supportportal.enumeration;
+
+public enum EmailStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
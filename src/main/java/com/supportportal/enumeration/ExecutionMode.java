@@ -0,0 +1,7 @@
+package com.supportportal.enumeration;
+
+public enum ExecutionMode {
+    PLATFORM,
+    ASYNC,
+    VIRTUAL
+}
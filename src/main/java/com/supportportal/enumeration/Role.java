@@ -1,6 +1,15 @@
 package com.supportportal.enumeration;
 
 import com.supportportal.constant.Authority;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 public enum Role {
     ROLE_USER(Authority.USER_AUTHORITIES),
@@ -9,14 +18,48 @@ public enum Role {
     ROLE_ADMIN(Authority.ADMIN_AUTHORITIES),
     ROLE_SUPER_ADMIN(Authority.SUPER_USER_AUTHORITIES);
 
+    //one GrantedAuthority per authority name, shared by every role that has it and by token verification
+    private static final Map<String, GrantedAuthority> GRANTED_AUTHORITIES = new HashMap<>();
+    private static final Map<String, Role> ROLES_BY_NAME = new HashMap<>();
+
+    static {
+        for (Role role : values()) {
+            Set<GrantedAuthority> grantedAuthorities = new LinkedHashSet<>();
+            for (String authority : role.authorities) {
+                grantedAuthorities.add(GRANTED_AUTHORITIES.computeIfAbsent(authority, SimpleGrantedAuthority::new));
+            }
+            role.grantedAuthorities = Collections.unmodifiableSet(grantedAuthorities);
+            ROLES_BY_NAME.put(role.name(), role);
+        }
+    }
+
     private String[] authorities;
+    private Collection<GrantedAuthority> grantedAuthorities;
 
     Role(String... authorities)
     {
-        this.authorities=authorities;
+        //the arrays in Authority are public, the role keeps a copy of its own
+        this.authorities=authorities.clone();
     }
 
+    //a copy, the role's authorities are shared by every user that has it
     public String[] getAuthorities() {
-        return authorities;
+        return authorities.clone();
+    }
+
+    //computed once per role, the same immutable set is handed to every user of the role
+    public Collection<GrantedAuthority> getGrantedAuthorities() {
+        return grantedAuthorities;
+    }
+
+    //null for a name that is no role, unlike valueOf which throws
+    public static Role fromName(String name) {
+        return name == null ? null : ROLES_BY_NAME.get(name);
+    }
+
+    //the shared instance for a known authority, a new one for anything else
+    public static GrantedAuthority getGrantedAuthority(String authority) {
+        GrantedAuthority grantedAuthority = GRANTED_AUTHORITIES.get(authority);
+        return grantedAuthority != null ? grantedAuthority : new SimpleGrantedAuthority(authority);
     }
 }
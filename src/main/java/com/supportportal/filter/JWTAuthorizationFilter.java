@@ -1,11 +1,16 @@
 package com.supportportal.filter;
 
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.supportportal.constant.SecurityConstant;
+import com.supportportal.domain.VerifiedToken;
 import com.supportportal.utility.JWTTokenProvider;
+import com.supportportal.utility.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -15,16 +20,28 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import static com.supportportal.constant.SecurityConstant.OUTCOME_TAG;
 import static com.supportportal.constant.SecurityConstant.TOKEN_PREFIX;
 @Component
 public class JWTAuthorizationFilter extends OncePerRequestFilter {
 
+    private static final String VERIFICATION_METRIC = "jwt.verification";
+
     private JWTTokenProvider jwtTokenProvider;
+    private VerifiedTokenCache verifiedTokenCache;
+    //built once so recording a verification only adds to the timer
+    private Timer verified;
+    private Timer expired;
+    private Timer invalid;
 
-    public JWTAuthorizationFilter(JWTTokenProvider jwtTokenProvider) {
+    public JWTAuthorizationFilter(JWTTokenProvider jwtTokenProvider, VerifiedTokenCache verifiedTokenCache, MeterRegistry meterRegistry) {
         this.jwtTokenProvider = jwtTokenProvider;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.verified = meterRegistry.timer(VERIFICATION_METRIC, OUTCOME_TAG, "success");
+        this.expired = meterRegistry.timer(VERIFICATION_METRIC, OUTCOME_TAG, "expired");
+        this.invalid = meterRegistry.timer(VERIFICATION_METRIC, OUTCOME_TAG, "invalid");
     }
 
     @Override
@@ -42,11 +59,10 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
                 return;
             }
             String token =  authorizationHeader.substring(TOKEN_PREFIX.length());
-            String userName = jwtTokenProvider.getSubject(token);
-            if(jwtTokenProvider.isTokenValid(userName,token) && SecurityContextHolder.getContext().getAuthentication()==null)
+            VerifiedToken verifiedToken = getVerifiedToken(token);
+            if(jwtTokenProvider.isTokenValid(verifiedToken) && SecurityContextHolder.getContext().getAuthentication()==null)
             {
-                List<GrantedAuthority> authorities = jwtTokenProvider.getAuthorities(token);
-                Authentication authentication = jwtTokenProvider.getAuthentication(userName, authorities, httpServletRequest);
+                Authentication authentication = jwtTokenProvider.getAuthentication(verifiedToken.getSubject(), verifiedToken.getAuthorities(), httpServletRequest);
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
             else
@@ -56,4 +72,30 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
             filterChain.doFilter(httpServletRequest,httpServletResponse);
         }
     }
+
+    private VerifiedToken getVerifiedToken(String token) {
+        VerifiedToken verifiedToken = verifiedTokenCache.getIfPresent(token);
+        if(verifiedToken==null)
+        {
+            verifiedToken = verify(token);
+            verifiedTokenCache.put(token, verifiedToken);
+        }
+        return verifiedToken;
+    }
+
+    //tokens served from the cache are not timed, the cache counts those
+    private VerifiedToken verify(String token) {
+        long start = System.nanoTime();
+        try {
+            VerifiedToken verifiedToken = jwtTokenProvider.verifyToken(token);
+            verified.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return verifiedToken;
+        } catch (TokenExpiredException e) {
+            expired.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        } catch (JWTVerificationException e) {
+            invalid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
 }
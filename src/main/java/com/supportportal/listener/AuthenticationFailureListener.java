@@ -1,23 +1,34 @@
 package com.supportportal.listener;
 
 import com.supportportal.service.LoginAttempt;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
+import org.springframework.security.authentication.event.AuthenticationFailureLockedEvent;
 import org.springframework.stereotype.Component;
 
+import static com.supportportal.constant.SecurityConstant.LOGIN_ATTEMPTS_METRIC;
+import static com.supportportal.constant.SecurityConstant.OUTCOME_TAG;
+
 @Component
 public class AuthenticationFailureListener {
 
     private LoginAttempt loginAttempt;
+    private Counter badCredentials;
+    private Counter locked;
 
     @Autowired
-    public AuthenticationFailureListener(LoginAttempt loginAttempt) {
+    public AuthenticationFailureListener(LoginAttempt loginAttempt, MeterRegistry meterRegistry) {
         this.loginAttempt = loginAttempt;
+        this.badCredentials = meterRegistry.counter(LOGIN_ATTEMPTS_METRIC, OUTCOME_TAG, "bad-credentials");
+        this.locked = meterRegistry.counter(LOGIN_ATTEMPTS_METRIC, OUTCOME_TAG, "locked");
     }
 
     @EventListener
     public void onAuthenticationFailure(AuthenticationFailureBadCredentialsEvent event)  {
+        badCredentials.increment();
         Object principal = event.getAuthentication().getPrincipal();
         if(principal instanceof String)
         {
@@ -25,4 +36,9 @@ public class AuthenticationFailureListener {
             loginAttempt.addUserToLoginAttempts(userName);
         }
     }
+
+    @EventListener
+    public void onAuthenticationFailure(AuthenticationFailureLockedEvent event) {
+        locked.increment();
+    }
 }
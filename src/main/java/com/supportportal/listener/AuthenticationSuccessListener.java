@@ -1,29 +1,37 @@
 package com.supportportal.listener;
 
-import com.supportportal.domain.User;
+import com.supportportal.domain.UserPrincipal;
 import com.supportportal.service.LoginAttempt;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
 import org.springframework.stereotype.Component;
 
+import static com.supportportal.constant.SecurityConstant.LOGIN_ATTEMPTS_METRIC;
+import static com.supportportal.constant.SecurityConstant.OUTCOME_TAG;
+
 @Component
 public class AuthenticationSuccessListener {
 
     private LoginAttempt loginAttempt;
+    private Counter succeeded;
 
     @Autowired
-    public AuthenticationSuccessListener(LoginAttempt loginAttempt) {
+    public AuthenticationSuccessListener(LoginAttempt loginAttempt, MeterRegistry meterRegistry) {
         this.loginAttempt = loginAttempt;
+        this.succeeded = meterRegistry.counter(LOGIN_ATTEMPTS_METRIC, OUTCOME_TAG, "success");
     }
 
     @EventListener
     public void onAuthenticationSuccess(AuthenticationSuccessEvent event) {
+        succeeded.increment();
         Object principal = event.getAuthentication().getPrincipal();
-        if(principal instanceof User)
+        if(principal instanceof UserPrincipal)
         {
-            User user = (User) event.getAuthentication().getPrincipal();
-            loginAttempt.addUserToLoginAttempts(user.getUserName());
+            UserPrincipal userPrincipal = (UserPrincipal) event.getAuthentication().getPrincipal();
+            loginAttempt.evictUserFromLoginAttemptCache(userPrincipal.getUsername());
         }
     }
 }
@@ -0,0 +1,31 @@
+package com.supportportal.repository;
+
+import com.supportportal.domain.EmailOutbox;
+import com.supportportal.enumeration.EmailStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    List<EmailOutbox> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(EmailStatus status, Date now, Pageable pageable);
+
+    long countByStatus(EmailStatus status);
+
+    //moves nextAttemptAt to the end of a lease, only succeeds for the node that read the current value
+    @Modifying
+    @Query("update EmailOutbox e set e.nextAttemptAt = :lease where e.id = :id and e.nextAttemptAt = :nextAttemptAt " +
+            "and e.status = com.supportportal.enumeration.EmailStatus.PENDING")
+    int claim(@Param("id") Long id, @Param("nextAttemptAt") Date nextAttemptAt, @Param("lease") Date lease);
+
+    @Modifying
+    @Query("delete from EmailOutbox e where e.status = com.supportportal.enumeration.EmailStatus.SENT and e.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") Date cutoff);
+}
@@ -0,0 +1,26 @@
+package com.supportportal.repository;
+
+import com.supportportal.domain.LoginAttemptCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface LoginAttemptCounterRepository extends JpaRepository<LoginAttemptCounter, String> {
+
+    @Modifying
+    @Query("update LoginAttemptCounter c set c.attempts = c.attempts + :delta where c.userName = :userName and c.windowStart >= :windowFloor")
+    int addAttempts(@Param("userName") String userName, @Param("delta") int delta, @Param("windowFloor") long windowFloor);
+
+    @Modifying
+    @Query("update LoginAttemptCounter c set c.attempts = :delta, c.windowStart = :now where c.userName = :userName and c.windowStart < :windowFloor")
+    int restartWindow(@Param("userName") String userName, @Param("delta") int delta, @Param("now") long now, @Param("windowFloor") long windowFloor);
+
+    @Modifying
+    @Query("delete from LoginAttemptCounter c where c.userName in :userNames")
+    int deleteByUserNames(@Param("userNames") Collection<String> userNames);
+}
@@ -0,0 +1,35 @@
+package com.supportportal.repository;
+
+import com.supportportal.domain.StoredImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface StoredImageRepository extends JpaRepository<StoredImage, String> {
+
+    @Modifying
+    @Query("update StoredImage i set i.referenceCount = i.referenceCount + 1, i.unreferencedSince = null where i.hash = :hash")
+    int addReference(@Param("hash") String hash);
+
+    @Modifying
+    @Query("update StoredImage i set i.referenceCount = i.referenceCount - 1 where i.hash = :hash and i.referenceCount > 0")
+    int removeReference(@Param("hash") String hash);
+
+    @Modifying
+    @Query("update StoredImage i set i.unreferencedSince = :now where i.hash = :hash and i.referenceCount = 0 and i.unreferencedSince is null")
+    int markUnreferenced(@Param("hash") String hash, @Param("now") Date now);
+
+    @Query("select i.hash from StoredImage i where i.referenceCount = 0 and i.unreferencedSince <= :cutoff")
+    List<String> findUnreferencedSince(@Param("cutoff") Date cutoff);
+
+    //only succeeds while the image is still unreferenced, a reference added since keeps it
+    @Modifying
+    @Query("delete from StoredImage i where i.hash = :hash and i.referenceCount = 0")
+    int deleteUnreferenced(@Param("hash") String hash);
+}
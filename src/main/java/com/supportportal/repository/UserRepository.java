@@ -1,14 +1,61 @@
 package com.supportportal.repository;
 
 import com.supportportal.domain.User;
+import com.supportportal.domain.UserResponse;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.web.multipart.MultipartFile;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static com.supportportal.constant.UserImplementationConstant.STREAM_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface UserRepository extends JpaRepository<User,Long> {
+public interface UserRepository extends JpaRepository<User,Long>, JpaSpecificationExecutor<User> {
     User findUserByUserName(String userName);
     User findUserByEmail(String email);
+
+    //the read endpoints select only the columns they send, the rows never become managed entities
+    String USER_RESPONSE = "select new com.supportportal.domain.UserResponse(u.id, u.userId, u.firstName, u.lastName, u.userName, u.email, "
+            + "u.profileImageUrl, u.lastLoginDate, u.lastLoginDateDisplay, u.joinDate, u.role, u.isActive, u.isNotLocked) from User u ";
+
+    @Query(USER_RESPONSE + "order by u.id")
+    List<UserResponse> findAllResponses();
+
+    @Query(USER_RESPONSE + "where u.id > :id order by u.id")
+    List<UserResponse> findResponsesByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    //every [userName, email] pair of the users holding one of the userNames or emails
+    @Query("select u.userName, u.email from User u where u.userName in :userNames or u.email in :emails")
+    List<Object[]> findUserNamesAndEmails(@Param("userNames") Collection<String> userNames, @Param("emails") Collection<String> emails);
+
+    //has to be consumed inside a transaction, rows are fetched from the database in chunks as the stream advances
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(USER_RESPONSE + "order by u.id")
+    Stream<UserResponse> streamAllResponses();
+
+    @Modifying
+    @Query("update User u set u.lastLoginDate = :lastLoginDate, u.lastLoginDateDisplay = :lastLoginDateDisplay where u.id = :id")
+    int updateLastLoginDate(@Param("id") Long id, @Param("lastLoginDate") Date lastLoginDate, @Param("lastLoginDateDisplay") Date lastLoginDateDisplay);
+
+    @Modifying
+    @Query("update User u set u.isNotLocked = false where u.id = :id")
+    int lockUser(@Param("id") Long id);
+
+    @Query("select u.profileImageHash from User u where u.id = :id")
+    String findProfileImageHash(@Param("id") Long id);
+
+    @Modifying
+    @Query("update User u set u.profileImageUrl = :profileImageUrl, u.profileImageHash = :profileImageHash where u.id = :id")
+    int updateProfileImage(@Param("id") Long id, @Param("profileImageUrl") String profileImageUrl, @Param("profileImageHash") String profileImageHash);
 }
@@ -0,0 +1,54 @@
+package com.supportportal.repository;
+
+import com.supportportal.domain.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Predicate;
+import java.util.Arrays;
+
+//criteria of /user/search. only the filters that are given become predicates, so the database sees a query it
+//can answer from the matching index instead of one that has to handle every optional parameter
+public class UserSpecifications {
+
+    private static final char ESCAPE = '\\';
+    private UserSpecifications() {
+    }
+
+    //a prefix pattern can use the index of each column, a substring pattern has to scan them. mysql merges the
+    //indexes of several fields, other databases may scan once there is more than one
+    public static Specification<User> matches(String query, boolean substring, String... fields)
+    {
+        String pattern = (substring ? "%" : "") + escape(query) + "%";
+        return (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.or(
+                Arrays.stream(fields)
+                        .map(field -> criteriaBuilder.like(root.<String>get(field), pattern, ESCAPE))
+                        .toArray(Predicate[]::new));
+    }
+
+    public static Specification<User> hasRole(String role)
+    {
+        return (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.equal(root.get("role"), role);
+    }
+
+    public static Specification<User> isActive(boolean isActive)
+    {
+        return (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.equal(root.<Boolean>get("isActive"), isActive);
+    }
+
+    public static Specification<User> isNotLocked(boolean isNotLocked)
+    {
+        return (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.equal(root.<Boolean>get("isNotLocked"), isNotLocked);
+    }
+
+    private static String escape(String query) {
+        StringBuilder escaped = new StringBuilder(query.length());
+        for (char c : query.toCharArray()) {
+            if(c == '%' || c == '_' || c == ESCAPE)
+            {
+                escaped.append(ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -1,35 +1,64 @@
 package com.supportportal.resource;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.supportportal.constant.UserImplementationConstant;
+import com.supportportal.domain.Avatar;
 import com.supportportal.domain.HttpResponse;
 import com.supportportal.domain.User;
+import com.supportportal.domain.UserImportResult;
+import com.supportportal.domain.UserPage;
 import com.supportportal.domain.UserPrincipal;
+import com.supportportal.domain.UserResponse;
+import com.supportportal.domain.UserSearchPage;
 import com.supportportal.exception.ExceptionHandling;
+import com.supportportal.service.AvatarService;
+import com.supportportal.service.ImageStore;
+import com.supportportal.service.UserBulkService;
 import com.supportportal.service.UserService;
+import com.supportportal.utility.BlockingRequestExecutor;
+import com.supportportal.utility.FileResponseWriter;
 import com.supportportal.utility.JWTTokenProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.io.ByteArrayOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static com.supportportal.constant.FileConstant.*;
 import static com.supportportal.constant.SecurityConstant.JWT_TOKEN_HEADER;
 import static org.springframework.http.HttpStatus.*;
+import static com.supportportal.constant.UserImplementationConstant.APPLICATION_NDJSON_VALUE;
+import static com.supportportal.constant.UserImplementationConstant.DEFAULT_PAGE_SIZE;
+import static com.supportportal.constant.UserImplementationConstant.DEFAULT_SEARCH_SORT;
+import static com.supportportal.constant.UserImplementationConstant.TEXT_CSV_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.http.MediaType.IMAGE_JPEG_VALUE;
+import static org.springframework.http.MediaType.IMAGE_PNG_VALUE;
 
 @RestController
 @RequestMapping(path = {"/","/user"})
@@ -38,12 +67,29 @@ public class UserResource extends ExceptionHandling {
     private UserService userService;
     private AuthenticationManager authenticationManager;
     private JWTTokenProvider jwtTokenProvider;
+    private ObjectMapper objectMapper;
+    private FileResponseWriter fileResponseWriter;
+    private AvatarService avatarService;
+    private ImageStore imageStore;
+    private UserBulkService userBulkService;
+    private BlockingRequestExecutor blockingRequestExecutor;
+    private Counter servedAvatarBytes;
+    //writes users into an open array without flushing the response after every one of them
+    private ObjectWriter userWriter;
 
     @Autowired
-    public UserResource(UserService userService, AuthenticationManager authenticationManager, JWTTokenProvider jwtTokenProvider) {
+    public UserResource(UserService userService, AuthenticationManager authenticationManager, JWTTokenProvider jwtTokenProvider, ObjectMapper objectMapper, FileResponseWriter fileResponseWriter, AvatarService avatarService, ImageStore imageStore, UserBulkService userBulkService, BlockingRequestExecutor blockingRequestExecutor, MeterRegistry meterRegistry) {
         this.userService = userService;
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.objectMapper = objectMapper;
+        this.fileResponseWriter = fileResponseWriter;
+        this.avatarService = avatarService;
+        this.imageStore = imageStore;
+        this.userBulkService = userBulkService;
+        this.blockingRequestExecutor = blockingRequestExecutor;
+        this.servedAvatarBytes = meterRegistry.counter(IMAGE_SERVED_BYTES_METRIC, IMAGE_SOURCE_TAG, "avatar");
+        this.userWriter = objectMapper.writerFor(UserResponse.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @GetMapping("/home")
@@ -53,14 +99,14 @@ public class UserResource extends ExceptionHandling {
     }
 
     @PostMapping("/register")
-    public ResponseEntity<User> register (@RequestBody User user)
+    public ResponseEntity<UserResponse> register (@RequestBody User user)
     {
         User registerNewUser = userService.register(user.getFirstName(), user.getLastName(), user.getUserName(), user.getEmail());
-        return new ResponseEntity<>(registerNewUser, OK);
+        return new ResponseEntity<>(UserResponse.from(registerNewUser), OK);
     }
 
     @PostMapping("/add")
-    public ResponseEntity<User> addNewUser(@RequestParam("firstName") String firstName,
+    public ResponseEntity<UserResponse> addNewUser(@RequestParam("firstName") String firstName,
                                            @RequestParam("lastName") String lastName,
                                            @RequestParam("userName") String userName,
                                            @RequestParam("email") String email,
@@ -69,11 +115,11 @@ public class UserResource extends ExceptionHandling {
                                            @RequestParam("isNonLocked") String nonLocked,
                                            @RequestParam(value="profileImage", required = false) MultipartFile profileImage){
         Optional<User> newUser = userService.addNewUser(firstName, lastName, userName, email, role, Boolean.parseBoolean(isActive), Boolean.parseBoolean(nonLocked), profileImage);
-        return new ResponseEntity(newUser, OK);
+        return new ResponseEntity<>(UserResponse.from(newUser.orElse(null)), OK);
     }
 
     @PostMapping("/update")
-    public ResponseEntity<User> updateNewUser(@RequestParam("currentUserName") String currentUserName,
+    public ResponseEntity<UserResponse> updateNewUser(@RequestParam("currentUserName") String currentUserName,
                                            @RequestParam("firstName") String firstName,
                                            @RequestParam("lastName") String lastName,
                                            @RequestParam("userName") String userName,
@@ -83,21 +129,88 @@ public class UserResource extends ExceptionHandling {
                                            @RequestParam("nonLocked") String nonLocked,
                                            @RequestParam(value="profileImage", required = false) MultipartFile profileImage){
         Optional<User> updateduser = userService.updateUser(currentUserName,firstName, lastName, userName, email, role, Boolean.parseBoolean(isActive), Boolean.parseBoolean(nonLocked), profileImage);
-        return new ResponseEntity(updateduser, OK);
+        return new ResponseEntity<>(UserResponse.from(updateduser.orElse(null)), OK);
     }
 
 
     @GetMapping("/find/{userName}")
-    public ResponseEntity<User> getUser(@PathVariable("userName") String userName)
+    public DeferredResult<ResponseEntity<UserResponse>> getUser(@PathVariable("userName") String userName)
     {
-        User user = userService.findByUserName(userName);
-        return new ResponseEntity<>(user, OK);
+        return blockingRequestExecutor.submit(() -> {
+            UserResponse user = userService.findByUserName(userName);
+            return new ResponseEntity<>(user, OK);
+        });
     }
 
     @GetMapping("/list")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> userList = userService.getUsers();
-        return new ResponseEntity<>(userList, OK);
+    public DeferredResult<ResponseEntity<List<UserResponse>>> getAllUsers() {
+        return blockingRequestExecutor.submit(() -> {
+            List<UserResponse> userList = userService.getUsers();
+            return new ResponseEntity<>(userList, OK);
+        });
+    }
+
+    @GetMapping("/page")
+    public DeferredResult<ResponseEntity<UserPage>> getUserPage(@RequestParam(value = "after", required = false) Long after,
+                                                                @RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        return blockingRequestExecutor.submit(() -> {
+            UserPage userPage = userService.getUsers(after, size);
+            return new ResponseEntity<>(userPage, OK);
+        });
+    }
+
+    //q matches the start of userName, email, firstName or lastName, or only of the one named by field.
+    //match=contains matches anywhere in them
+    @GetMapping("/search")
+    public DeferredResult<ResponseEntity<UserSearchPage>> searchUsers(@RequestParam(value = "q", required = false) String query,
+                                                                      @RequestParam(value = "field", required = false) String field,
+                                                                      @RequestParam(value = "match", defaultValue = "prefix") String match,
+                                                                      @RequestParam(value = "role", required = false) String role,
+                                                                      @RequestParam(value = "isActive", required = false) Boolean isActive,
+                                                                      @RequestParam(value = "isNotLocked", required = false) Boolean isNotLocked,
+                                                                      @RequestParam(value = "page", defaultValue = "0") int page,
+                                                                      @RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size,
+                                                                      @RequestParam(value = "sort", defaultValue = DEFAULT_SEARCH_SORT) String sort,
+                                                                      @RequestParam(value = "direction", defaultValue = "asc") String direction) {
+        return blockingRequestExecutor.submit(() -> {
+            UserSearchPage userSearchPage = userService.searchUsers(query, field, "contains".equalsIgnoreCase(match), role, isActive, isNotLocked,
+                    page, size, sort, "desc".equalsIgnoreCase(direction));
+            return new ResponseEntity<>(userSearchPage, OK);
+        });
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                userService.streamUsers(user -> {
+                    try {
+                        userWriter.writeValue(generator, user);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_JSON).body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = {TEXT_CSV_VALUE, APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasAnyAuthority('user:create')")
+    public ResponseEntity<UserImportResult> importUsers(HttpServletRequest request) throws IOException {
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE));
+        String temporaryImageBaseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().path(DEFAULT_USER_IMAGE_PATH).toUriString();
+        UserImportResult result = userBulkService.importUsers(request.getInputStream(), csv, temporaryImageBaseUrl);
+        return new ResponseEntity<>(result, OK);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(value = "format", defaultValue = "csv") String format) {
+        boolean csv = !"ndjson".equalsIgnoreCase(format);
+        StreamingResponseBody body = outputStream -> userBulkService.exportUsers(outputStream, csv);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(csv ? TEXT_CSV_VALUE : APPLICATION_NDJSON_VALUE)).body(body);
     }
 
     @GetMapping("/resetPassword/{email}")
@@ -115,38 +228,65 @@ public class UserResource extends ExceptionHandling {
     }
 
     @PostMapping("/updateProfileImage")
-    public ResponseEntity<User> updateProfileImage(@RequestParam("userName") String userName, @RequestParam(value="profileImage") MultipartFile profileImage){
+    public ResponseEntity<UserResponse> updateProfileImage(@RequestParam("userName") String userName, @RequestParam(value="profileImage") MultipartFile profileImage){
         Optional<User> updatedUserWithProfileImage = userService.updateProfileImage(userName,profileImage);
-        return new ResponseEntity(updatedUserWithProfileImage, OK);
+        return new ResponseEntity<>(UserResponse.from(updatedUserWithProfileImage.orElse(null)), OK);
     }
 
     @GetMapping(value = "/image/{userName}/{fileName}", produces = {IMAGE_JPEG_VALUE})
-    public byte[] getProfileImage(@PathVariable("userName") String userName, @PathVariable("fileName") String fileName) throws IOException {
-        return Files.readAllBytes(Paths.get(USER_FOLDER+userName+FORWARD_SLASH+fileName));
-    }
-
-    @GetMapping(value = "/image/profile/{userName}", produces = {IMAGE_JPEG_VALUE})
-    public byte[] getTempProfileImage(@PathVariable("userName") String userName) throws IOException {
-        URL url = new URL(TEMP_PROFILE_IMAGE_BASE_URL+userName);
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        InputStream inputStream = url.openStream();
-        int bytesRead;
-        byte[] chunk = new byte[1024];
-        while((bytesRead=inputStream.read(chunk)) > 0) {
-            byteArrayOutputStream.write(chunk,0,bytesRead);
+    public void getProfileImage(@PathVariable("userName") String userName, @PathVariable("fileName") String fileName,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path userFolder = Paths.get(USER_FOLDER).toAbsolutePath().normalize();
+        Path image = userFolder.resolve(userName + FORWARD_SLASH + fileName).normalize();
+        if(!image.startsWith(userFolder))
+        {
+            response.sendError(NOT_FOUND.value());
+            return;
         }
+        //a versioned url names one exact file, so it can be cached for good. anything else is revalidated
+        //with the ETag on every use
+        CacheControl cacheControl = request.getParameter(VERSION_PARAMETER) != null
+                ? CacheControl.maxAge(IMAGE_CACHE_MAX_AGE_DAYS, TimeUnit.DAYS).cachePublic()
+                : CacheControl.noCache().cachePublic();
+        fileResponseWriter.write(image, IMAGE_JPEG_VALUE, cacheControl, request, response);
+    }
 
-        return byteArrayOutputStream.toByteArray();
+    //stored images never change under their hash
+    @GetMapping(value = "/image/hash/{hash}/{fileName}", produces = {IMAGE_JPEG_VALUE})
+    public void getStoredImage(@PathVariable("hash") String hash, @PathVariable("fileName") String fileName,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path image = imageStore.getImageFile(hash, fileName);
+        if(image == null)
+        {
+            response.sendError(NOT_FOUND.value());
+            return;
+        }
+        fileResponseWriter.write(image, IMAGE_JPEG_VALUE, CacheControl.maxAge(IMAGE_CACHE_MAX_AGE_DAYS, TimeUnit.DAYS).cachePublic(),
+                request, response);
+    }
+
+    @GetMapping(value = "/image/profile/{userName}", produces = {IMAGE_PNG_VALUE})
+    public ResponseEntity<byte[]> getTempProfileImage(@PathVariable("userName") String userName, HttpServletRequest request) {
+        Avatar avatar = avatarService.getAvatar(userName);
+        //a client that still has this avatar gets a 304 without the body
+        if(!avatar.getETag().equals(request.getHeader(HttpHeaders.IF_NONE_MATCH)))
+        {
+            servedAvatarBytes.increment(avatar.getImage().length);
+        }
+        return ResponseEntity.ok()
+                .eTag(avatar.getETag())
+                .cacheControl(CacheControl.maxAge(AVATAR_CACHE_MAX_AGE_HOURS, TimeUnit.HOURS).cachePublic())
+                .body(avatar.getImage());
     }
 
     @PostMapping("/login")
-    public ResponseEntity<User> login(@RequestBody User user)
+    public ResponseEntity<UserResponse> login(@RequestBody User user)
     {
-        authenticateLoggingInUser(user.getUserName(),user.getPassword());
-        User loginUser = userService.findByUserName(user.getUserName());
-        UserPrincipal userPrincipal =  new UserPrincipal(loginUser);
+        //the authenticated principal already holds the user loaded during authentication
+        UserPrincipal userPrincipal = (UserPrincipal) authenticateLoggingInUser(user.getUserName(),user.getPassword()).getPrincipal();
+        User loginUser = userPrincipal.getUser();
         HttpHeaders jwtHeaders = getJWTHeaders(userPrincipal);
-        return new ResponseEntity<>(loginUser,jwtHeaders, OK);
+        return new ResponseEntity<>(UserResponse.from(loginUser),jwtHeaders, OK);
     }
 
     private ResponseEntity<HttpResponse> response(HttpStatus httpStatus, String message) {
@@ -160,8 +300,8 @@ public class UserResource extends ExceptionHandling {
         return headers;
     }
 
-    private void authenticateLoggingInUser(String userName, String password) {
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(userName,password));
+    private Authentication authenticateLoggingInUser(String userName, String password) {
+        return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(userName,password));
     }
 
 
@@ -0,0 +1,160 @@
+package com.supportportal.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.supportportal.domain.Avatar;
+import com.supportportal.utility.IdenticonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.supportportal.constant.FileConstant.*;
+
+//default profile images, rendered locally as identicons so a request never waits on the network. the image
+//url is public and takes any name, so rendered images are only kept in bounded in memory caches and never
+//on disk, where anonymous requests could fill it. with avatar.upstream.enabled the robohash image is fetched
+//in the background, with timeouts, and replaces the identicon once it has arrived
+@Service
+public class AvatarService {
+
+    private Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private final Cache<String, Avatar> avatars = CacheBuilder.newBuilder()
+            .maximumWeight(AVATAR_CACHE_MAXIMUM_BYTES)
+            .<String, Avatar>weigher((key, avatar) -> avatar.getImage().length)
+            .expireAfterWrite(AVATAR_CACHE_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+            .build();
+    //fetching is slow and remote, upstream images are kept longer than the identicons rendered in their place
+    private final Cache<String, byte[]> upstreamAvatars = CacheBuilder.newBuilder()
+            .maximumWeight(AVATAR_CACHE_MAXIMUM_BYTES)
+            .<String, byte[]>weigher((key, image) -> image.length)
+            .expireAfterWrite(UPSTREAM_AVATAR_EXPIRATION_HOURS, TimeUnit.HOURS)
+            .build();
+    private final Set<String> fetching = ConcurrentHashMap.newKeySet();
+
+    private IdenticonGenerator identiconGenerator;
+    private boolean upstreamEnabled;
+    private String upstreamBaseUrl;
+    private ThreadPoolExecutor upstreamFetcher;
+
+    @Autowired
+    public AvatarService(IdenticonGenerator identiconGenerator, @Value("${avatar.upstream.enabled:false}") boolean upstreamEnabled) {
+        this(identiconGenerator, upstreamEnabled, TEMP_PROFILE_IMAGE_BASE_URL);
+    }
+
+    AvatarService(IdenticonGenerator identiconGenerator, boolean upstreamEnabled, String upstreamBaseUrl) {
+        this.identiconGenerator = identiconGenerator;
+        this.upstreamEnabled = upstreamEnabled;
+        this.upstreamBaseUrl = upstreamBaseUrl;
+        this.upstreamFetcher = new ThreadPoolExecutor(UPSTREAM_AVATAR_THREADS, UPSTREAM_AVATAR_THREADS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(UPSTREAM_AVATAR_QUEUE_SIZE));
+    }
+
+    public Avatar getAvatar(String userName)
+    {
+        HashCode hash = Hashing.sha256().hashString(userName, StandardCharsets.UTF_8);
+        String key = hash.toString();
+        Avatar avatar = avatars.getIfPresent(key);
+        if(avatar == null)
+        {
+            avatar = load(key, hash.asBytes(), userName);
+            avatars.put(key, avatar);
+        }
+        return avatar;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        upstreamFetcher.shutdownNow();
+    }
+
+    private Avatar load(String key, byte[] hash, String userName) {
+        if(upstreamEnabled)
+        {
+            byte[] upstream = upstreamAvatars.getIfPresent(key);
+            if(upstream != null)
+            {
+                return avatar(upstream);
+            }
+            fetchUpstream(key, userName);
+        }
+        return avatar(identiconGenerator.generate(hash));
+    }
+
+    private void fetchUpstream(String key, String userName) {
+        if(!fetching.add(key))
+        {
+            return;
+        }
+        try {
+            upstreamFetcher.execute(() -> {
+                try {
+                    byte[] image = download(userName);
+                    if(image != null)
+                    {
+                        upstreamAvatars.put(key, image);
+                        avatars.invalidate(key);
+                    }
+                } finally {
+                    fetching.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            //the queue is full, the next load after the identicon expires tries again
+            fetching.remove(key);
+        }
+    }
+
+    private byte[] download(String userName) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(upstreamBaseUrl + URLEncoder.encode(userName, StandardCharsets.UTF_8.name())).openConnection();
+            connection.setConnectTimeout(UPSTREAM_AVATAR_TIMEOUT_MILLIS);
+            connection.setReadTimeout(UPSTREAM_AVATAR_TIMEOUT_MILLIS);
+            String contentType = connection.getContentType();
+            if(connection.getResponseCode() != HttpURLConnection.HTTP_OK || contentType == null || !contentType.startsWith("image/"))
+            {
+                LOGGER.warn("Upstream avatar for {} not available: {}", userName, connection.getResponseCode());
+                return null;
+            }
+            try (InputStream inputStream = connection.getInputStream()) {
+                byte[] image = ByteStreams.toByteArray(ByteStreams.limit(inputStream, UPSTREAM_AVATAR_MAXIMUM_BYTES + 1));
+                return image.length > UPSTREAM_AVATAR_MAXIMUM_BYTES ? null : image;
+            }
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            LOGGER.warn("Could not fetch upstream avatar for {}: {}", userName, e.getMessage());
+            return null;
+        } finally {
+            if(connection != null)
+            {
+                connection.disconnect();
+            }
+        }
+    }
+
+    private Avatar avatar(byte[] image) {
+        return new Avatar(image, "\"" + Hashing.murmur3_128().hashBytes(image) + "\"");
+    }
+}
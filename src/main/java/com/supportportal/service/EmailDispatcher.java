@@ -0,0 +1,234 @@
+package com.supportportal.service;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.supportportal.domain.EmailOutbox;
+import com.supportportal.enumeration.EmailStatus;
+import com.supportportal.repository.EmailOutboxRepository;
+import com.supportportal.utility.OutboxCipher;
+import com.supportportal.utility.SmtpTransportPool;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.supportportal.constant.EmailConstant.*;
+
+//sends queued outbox emails over pooled smtp connections, at most email.rate-per-second, retrying failures
+//with exponential backoff. each email is claimed with a lease first so several nodes can dispatch the same outbox.
+//sent emails are deleted once they are older than email.sent-retention, the outbox only keeps recent history
+@Service
+public class EmailDispatcher {
+
+    private Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder sendNanos = new LongAdder();
+
+    private EmailOutboxRepository emailOutboxRepository;
+    private SmtpTransportPool smtpTransportPool;
+    private OutboxCipher outboxCipher;
+    private TransactionTemplate transactionTemplate;
+    private RateLimiter rateLimiter;
+    private ExecutorService senders;
+    private int connections;
+    private int batchSize;
+    private int maxAttempts;
+    private long retryBackoff;
+    private long sentRetention;
+
+    @Autowired
+    public EmailDispatcher(EmailOutboxRepository emailOutboxRepository, SmtpTransportPool smtpTransportPool,
+                           OutboxCipher outboxCipher, PlatformTransactionManager transactionManager,
+                           @Value("${email.connections}") int connections,
+                           @Value("${email.batch-size}") int batchSize,
+                           @Value("${email.rate-per-second}") double ratePerSecond,
+                           @Value("${email.max-attempts}") int maxAttempts,
+                           @Value("${email.retry-backoff}") long retryBackoff,
+                           @Value("${email.sent-retention}") long sentRetention) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.smtpTransportPool = smtpTransportPool;
+        this.outboxCipher = outboxCipher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rateLimiter = RateLimiter.create(ratePerSecond);
+        this.senders = Executors.newFixedThreadPool(connections);
+        this.connections = connections;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.sentRetention = sentRetention;
+    }
+
+    @Scheduled(fixedDelayString = "${email.dispatch-interval}")
+    public void dispatch()
+    {
+        List<EmailOutbox> emails = claimDueEmails();
+        if(emails.isEmpty())
+        {
+            return;
+        }
+        List<Future<?>> sends = new ArrayList<>();
+        int perConnection = (emails.size() + connections - 1) / connections;
+        for (int from = 0; from < emails.size(); from += perConnection) {
+            List<EmailOutbox> share = emails.subList(from, Math.min(from + perConnection, emails.size()));
+            sends.add(senders.submit(() -> send(share)));
+        }
+        for (Future<?> send : sends) {
+            try {
+                send.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                LOGGER.error("Email dispatch failed: {}", e.getCause().getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${email.purge-interval}")
+    public void purgeSentEmails()
+    {
+        Date cutoff = new Date(System.currentTimeMillis() - sentRetention);
+        Integer purged = transactionTemplate.execute(status -> emailOutboxRepository.deleteSentBefore(cutoff));
+        LOGGER.debug("Purged {} sent emails", purged);
+    }
+
+    public long getQueueDepth() {
+        return emailOutboxRepository.countByStatus(EmailStatus.PENDING);
+    }
+
+    public long getSentCount() {
+        return sentCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public double getAverageSendLatencyMillis() {
+        long sent = sentCount.sum();
+        return sent == 0 ? 0 : sendNanos.sum() / 1_000_000.0 / sent;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+    }
+
+    private List<EmailOutbox> claimDueEmails() {
+        Date now = new Date();
+        Date lease = new Date(now.getTime() + CLAIM_LEASE_MILLIS);
+        List<EmailOutbox> due = emailOutboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                EmailStatus.PENDING, now, PageRequest.of(0, batchSize));
+        List<EmailOutbox> claimed = new ArrayList<>();
+        transactionTemplate.execute(status -> {
+            for (EmailOutbox email : due) {
+                if(emailOutboxRepository.claim(email.getId(), email.getNextAttemptAt(), lease) == 1)
+                {
+                    claimed.add(email);
+                }
+            }
+            return null;
+        });
+        return claimed;
+    }
+
+    private void send(List<EmailOutbox> emails) {
+        Transport transport = null;
+        for (EmailOutbox email : emails) {
+            rateLimiter.acquire();
+            long start = System.nanoTime();
+            try {
+                if(transport == null)
+                {
+                    transport = smtpTransportPool.borrow();
+                }
+                Message message = createEmail(email);
+                transport.sendMessage(message, message.getAllRecipients());
+                sendNanos.add(System.nanoTime() - start);
+                sentCount.increment();
+                markSent(email);
+            } catch (MessagingException e) {
+                if(transport != null)
+                {
+                    smtpTransportPool.invalidate(transport);
+                    transport = null;
+                }
+                failedCount.increment();
+                markFailed(email, e);
+            }
+        }
+        if(transport != null)
+        {
+            smtpTransportPool.release(transport);
+        }
+    }
+
+    private Message createEmail(EmailOutbox email) throws MessagingException {
+        Message message = new MimeMessage(smtpTransportPool.getSession());
+        message.setFrom(new InternetAddress(FROM_EMAIL));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(email.getRecipient(), false));
+        message.setRecipients(Message.RecipientType.CC, InternetAddress.parse(email.getCc(), false));
+        message.setSubject(email.getSubject());
+        message.setText(decryptBody(email));
+        message.setSentDate(new Date());
+        message.saveChanges();
+        return message;
+    }
+
+    //a body encrypted by a node with another key is retried, a node with the right key may claim it next
+    private String decryptBody(EmailOutbox email) throws MessagingException {
+        try {
+            return outboxCipher.decrypt(email.getBody());
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new MessagingException("could not decrypt the email body", e);
+        }
+    }
+
+    private void markSent(EmailOutbox email) {
+        email.setStatus(EmailStatus.SENT);
+        email.setSentAt(new Date());
+        //the body carries a password, even encrypted it must not outlive the send
+        email.setBody(null);
+        emailOutboxRepository.save(email);
+    }
+
+    private void markFailed(EmailOutbox email, MessagingException e) {
+        LOGGER.error("Could not send email {}: {}", email.getId(), e.getMessage());
+        email.setAttempts(email.getAttempts() + 1);
+        email.setLastError(StringUtils.abbreviate(e.getMessage(), 255));
+        if(email.getAttempts() >= maxAttempts)
+        {
+            email.setStatus(EmailStatus.FAILED);
+            email.setBody(null);
+        }
+        else
+        {
+            long backoff = Math.min(retryBackoff << (email.getAttempts() - 1), MAXIMUM_RETRY_BACKOFF_MILLIS);
+            email.setNextAttemptAt(new Date(System.currentTimeMillis() + backoff));
+        }
+        emailOutboxRepository.save(email);
+    }
+}
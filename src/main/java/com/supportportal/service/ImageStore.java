@@ -0,0 +1,26 @@
+package com.supportportal.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+//content addressed image storage. an image is named by the sha-256 of the uploaded bytes, so identical uploads
+//share one stored copy and the files behind a name never change. every user showing an image holds a
+//reference to it, images nobody references any more are garbage collected in the background
+public interface ImageStore {
+
+    //adds a reference to the image, the writer is only called when the image is not stored yet and gets an
+    //empty directory for the image files, which becomes visible under the hash all at once
+    void addReference(String hash, ImageWriter writer) throws IOException;
+
+    //joins the caller's transaction when there is one, the files are only removed by collectGarbage
+    void removeReference(String hash);
+
+    //null when the hash or file name is not a valid stored image name
+    Path getImageFile(String hash, String fileName);
+
+    void collectGarbage();
+
+    interface ImageWriter {
+        void write(Path directory) throws IOException;
+    }
+}
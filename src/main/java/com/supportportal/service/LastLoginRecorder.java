@@ -0,0 +1,121 @@
+package com.supportportal.service;
+
+import com.supportportal.domain.User;
+import com.supportportal.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//keeps login timestamps and lockouts in memory and writes them with targeted updates in periodic batches,
+//so a login never writes the user row on the request thread. repeated logins of a user between flushes
+//collapse into one update. cached lookups of the flushed users are evicted afterwards
+@Service
+public class LastLoginRecorder {
+
+    private Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private final Map<Long, LastLogin> pendingLogins = new ConcurrentHashMap<>();
+    private final Map<Long, User> pendingLocks = new ConcurrentHashMap<>();
+
+    private UserRepository userRepository;
+    private TransactionTemplate transactionTemplate;
+    private UserCache userCache;
+
+    @Autowired
+    public LastLoginRecorder(UserRepository userRepository, PlatformTransactionManager transactionManager, UserCache userCache) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userCache = userCache;
+    }
+
+    public void recordLogin(User user)
+    {
+        Date now = new Date();
+        //an unflushed login is newer than what was loaded from the database
+        LastLogin lastLogin = pendingLogins.compute(user.getId(), (id, pending) ->
+                new LastLogin(user, now, pending == null ? user.getLastLoginDate() : pending.lastLoginDate));
+        user.setLastLoginDateDisplay(lastLogin.lastLoginDateDisplay);
+        user.setLastLoginDate(now);
+    }
+
+    public void recordLock(User user)
+    {
+        pendingLocks.put(user.getId(), user);
+    }
+
+    //an administrator changed the user, a lock still waiting for the flush must not undo an unlock
+    public void cancelLock(User user)
+    {
+        pendingLocks.remove(user.getId());
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${user.last-login.flush-interval}")
+    public void flush()
+    {
+        if(pendingLogins.isEmpty() && pendingLocks.isEmpty())
+        {
+            return;
+        }
+        Map<Long, LastLogin> logins = new HashMap<>();
+        for (Long id : pendingLogins.keySet()) {
+            LastLogin lastLogin = pendingLogins.remove(id);
+            if(lastLogin != null)
+            {
+                logins.put(id, lastLogin);
+            }
+        }
+        Map<Long, User> locks = new HashMap<>();
+        for (Long id : pendingLocks.keySet()) {
+            User user = pendingLocks.remove(id);
+            if(user != null)
+            {
+                locks.put(id, user);
+            }
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                logins.forEach((id, lastLogin) ->
+                        userRepository.updateLastLoginDate(id, lastLogin.lastLoginDate, lastLogin.lastLoginDateDisplay));
+                locks.keySet().forEach(userRepository::lockUser);
+                return null;
+            });
+            logins.values().forEach(lastLogin -> userCache.evict(lastLogin.userName, lastLogin.email));
+            locks.values().forEach(userCache::evict);
+            LOGGER.debug("Flushed {} last login dates and {} locks", logins.size(), locks.size());
+        } catch (RuntimeException e) {
+            //keep them for the next flush, newer logins recorded in the meantime win
+            LOGGER.error("Could not flush last login dates: {}", e.getMessage());
+            logins.forEach(pendingLogins::putIfAbsent);
+            locks.forEach(pendingLocks::putIfAbsent);
+        }
+    }
+
+    public int getPendingCount() {
+        return pendingLogins.size() + pendingLocks.size();
+    }
+
+    private static class LastLogin {
+        private final String userName;
+        private final String email;
+        private final Date lastLoginDate;
+        private final Date lastLoginDateDisplay;
+
+        private LastLogin(User user, Date lastLoginDate, Date lastLoginDateDisplay) {
+            this.userName = user.getUserName();
+            this.email = user.getEmail();
+            this.lastLoginDate = lastLoginDate;
+            this.lastLoginDateDisplay = lastLoginDateDisplay;
+        }
+    }
+}
@@ -1,55 +1,49 @@
 package com.supportportal.service;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-
 @Service
 public class LoginAttempt {
 
     private static final int MAXIMUM_NO_OF_ATTEMPTS = 5;
-    public static final int ATTEMPT_INCREMENT = 1;
-    private LoadingCache<String,Integer> loginAttemptCache;
+    //the width of the user_name column, a longer name can not belong to any user
+    private static final int MAXIMUM_USER_NAME_LENGTH = 255;
+
+    private LoginAttemptStore loginAttemptStore;
+    private Counter lockouts;
 
-    public LoginAttempt()
+    @Autowired
+    public LoginAttempt(LoginAttemptStore loginAttemptStore, MeterRegistry meterRegistry)
     {
-        super();
-        loginAttemptCache= CacheBuilder.newBuilder().expireAfterWrite(15, TimeUnit.MINUTES)
-                .maximumSize(100).build(new CacheLoader<String, Integer>() {
-                    @Override
-                    public Integer load(String key) throws Exception {
-                        return 0;
-                    }
-                });
+        this.loginAttemptStore = loginAttemptStore;
+        this.lockouts = meterRegistry.counter("login.lockouts");
     }
 
     public void evictUserFromLoginAttemptCache(String userName)
     {
-        loginAttemptCache.invalidate(userName);
+        loginAttemptStore.reset(userName);
     }
 
     public void addUserToLoginAttempts(String userName)
     {
-        Integer attempt = null;
-        try {
-            attempt = ATTEMPT_INCREMENT + loginAttemptCache.get(userName);
-        } catch (ExecutionException e) {
-            e.printStackTrace();
+        if(userName.length() > MAXIMUM_USER_NAME_LENGTH)
+        {
+            return;
         }
-        loginAttemptCache.put(userName,attempt);
+        loginAttemptStore.addAttempt(userName);
     }
 
+    //only asked for users who are not locked yet, so every yes locks a user
     public boolean hasExceededMaxAttempts(String userName)
     {
-        try {
-            return loginAttemptCache.get(userName) >= MAXIMUM_NO_OF_ATTEMPTS;
-        } catch (ExecutionException e) {
-            e.printStackTrace();
+        boolean exceeded = loginAttemptStore.getAttempts(userName) >= MAXIMUM_NO_OF_ATTEMPTS;
+        if(exceeded)
+        {
+            lockouts.increment();
         }
-        return false;
+        return exceeded;
     }
 }
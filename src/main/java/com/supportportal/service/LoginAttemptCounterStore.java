@@ -0,0 +1,15 @@
+package com.supportportal.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+//shared key value store behind SharedLoginAttemptStore, one counter per userName over a fixed window
+public interface LoginAttemptCounterStore {
+
+    //adds the deltas to the shared counters and returns the resulting totals
+    Map<String, Integer> addAll(Map<String, Integer> deltas, long windowMillis);
+
+    Map<String, Integer> getAll(Collection<String> userNames, long windowMillis);
+
+    void deleteAll(Collection<String> userNames);
+}
@@ -0,0 +1,12 @@
+package com.supportportal.service;
+
+//where failed login attempts are counted. the in process store only sees this node, the shared store
+//syncs with the other nodes. implementations must not block the caller on a network round trip
+public interface LoginAttemptStore {
+
+    void addAttempt(String userName);
+
+    void reset(String userName);
+
+    int getAttempts(String userName);
+}
@@ -0,0 +1,72 @@
+package com.supportportal.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+//bcrypt hashing on its own pool sized to the cores, so many registrations or password resets at once share the
+//cpu instead of each request thread hashing for itself. when the queue is full the calling thread hashes its own
+//password, which slows callers down instead of piling up work
+@Service
+public class PasswordHasher {
+
+    private final LongAdder hashedCount = new LongAdder();
+    private final LongAdder hashingNanos = new LongAdder();
+
+    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    private ThreadPoolExecutor workers;
+
+    @Autowired
+    public PasswordHasher(BCryptPasswordEncoder bCryptPasswordEncoder,
+                          @Value("${password.hash-workers:0}") int workers,
+                          @Value("${password.hash-queue-size}") int queueSize) {
+        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public CompletableFuture<String> encodeAsync(String password)
+    {
+        return CompletableFuture.supplyAsync(() -> encode(password), workers);
+    }
+
+    public String encode(String password)
+    {
+        long start = System.nanoTime();
+        String encodedPassword = bCryptPasswordEncoder.encode(password);
+        hashingNanos.add(System.nanoTime() - start);
+        hashedCount.increment();
+        return encodedPassword;
+    }
+
+    public int getQueueDepth() {
+        return workers.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return workers.getActiveCount();
+    }
+
+    public long getHashedCount() {
+        return hashedCount.sum();
+    }
+
+    public double getAverageHashingMillis() {
+        long hashed = hashedCount.sum();
+        return hashed == 0 ? 0 : hashingNanos.sum() / 1_000_000.0 / hashed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
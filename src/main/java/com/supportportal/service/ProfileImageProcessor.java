@@ -0,0 +1,272 @@
+package com.supportportal.service;
+
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.supportportal.domain.User;
+import com.supportportal.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.supportportal.constant.FileConstant.*;
+
+//turns uploaded profile images into square jpeg variants on a bounded worker pool, so the request only pays for
+//spooling the upload to a temporary file. each upload is decoded once and every variant is scaled from the
+//next larger one. the variants go to the ImageStore under the hash of the upload and the profile image url is
+//only published once they are stored. the work always runs on a worker: a transaction's completion callback is
+//no place for database writes of its own. when the queue is full the uploading request thread waits for room,
+//which slows uploads down instead of piling them up
+@Service
+public class ProfileImageProcessor {
+
+    private Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private final LongAdder processedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder processingNanos = new LongAdder();
+
+    private UserRepository userRepository;
+    private UserCache userCache;
+    private ImageStore imageStore;
+    private TransactionTemplate transactionTemplate;
+    private ThreadPoolExecutor workers;
+
+    @Autowired
+    public ProfileImageProcessor(UserRepository userRepository, UserCache userCache, ImageStore imageStore, PlatformTransactionManager transactionManager,
+                                 @Value("${image.workers}") int workers,
+                                 @Value("${image.queue-size}") int queueSize) {
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.imageStore = imageStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize));
+        //tasks handed straight to the queue are only taken by threads that are already running
+        this.workers.prestartAllCoreThreads();
+    }
+
+    public void submit(User user, MultipartFile profileImage, String storedImageBaseUrl) throws IOException
+    {
+        //the multipart upload is gone once the request ends, it is hashed while it is copied
+        Path upload = Files.createTempFile("profile-image", null);
+        String hash;
+        try (HashingInputStream inputStream = new HashingInputStream(Hashing.sha256(), profileImage.getInputStream())) {
+            Files.copy(inputStream, upload, StandardCopyOption.REPLACE_EXISTING);
+            hash = inputStream.hash().toString();
+        } catch (IOException e) {
+            deleteQuietly(upload);
+            throw e;
+        }
+        Long id = user.getId();
+        String userName = user.getUserName();
+        String email = user.getEmail();
+        executeAfterCommit(() -> process(upload, hash, id, userName, email, storedImageBaseUrl), () -> {
+            failedCount.increment();
+            LOGGER.error("Could not queue profile image of {}", userName);
+            deleteQuietly(upload);
+        }, () -> deleteQuietly(upload));
+    }
+
+    //images from before the image store lived in a folder per user
+    public void deleteUserFolder(String userName)
+    {
+        executeAfterCommit(() -> {
+            try {
+                FileSystemUtils.deleteRecursively(Paths.get(USER_FOLDER + userName).toAbsolutePath().normalize());
+            } catch (IOException e) {
+                LOGGER.error("Could not delete image folder of {}: {}", userName, e.getMessage());
+            }
+        }, () -> LOGGER.error("Could not queue deleting the image folder of {}", userName), () -> {});
+    }
+
+    public int getQueueDepth() {
+        return workers.getQueue().size();
+    }
+
+    public long getProcessedCount() {
+        return processedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public double getAverageProcessingMillis() {
+        long processed = processedCount.sum();
+        return processed == 0 ? 0 : processingNanos.sum() / 1_000_000.0 / processed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    //changes made by the calling transaction, like a new user, are only visible to a worker once it commits
+    private void executeAfterCommit(Runnable task, Runnable onRejected, Runnable onRollback) {
+        if(TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if(status == STATUS_COMMITTED)
+                    {
+                        execute(task, onRejected);
+                    }
+                    else
+                    {
+                        onRollback.run();
+                    }
+                }
+            });
+        }
+        else
+        {
+            execute(task, onRejected);
+        }
+    }
+
+    private void execute(Runnable task, Runnable onRejected) {
+        try {
+            workers.execute(task);
+            return;
+        } catch (RejectedExecutionException e) {
+            //the queue is full, wait for a worker to take the next image
+        }
+        try {
+            if(!workers.isShutdown() && workers.getQueue().offer(task, IMAGE_HANDOFF_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+            {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        onRejected.run();
+    }
+
+    private void process(Path upload, String hash, Long id, String userName, String email, String storedImageBaseUrl) {
+        long start = System.nanoTime();
+        try {
+            //an image that is already stored, like a shared company picture, is not decoded again
+            imageStore.addReference(hash, directory -> writeVariants(upload, directory));
+            String profileImageUrl = storedImageBaseUrl + hash + FORWARD_SLASH + PROFILE_IMAGE_SIZES[0] + DOT + JPG_EXTENSION;
+            transactionTemplate.execute(status -> {
+                String previousHash = userRepository.findProfileImageHash(id);
+                if(userRepository.updateProfileImage(id, profileImageUrl, hash) == 0)
+                {
+                    //the user was deleted in the meantime
+                    imageStore.removeReference(hash);
+                }
+                else if(previousHash != null)
+                {
+                    imageStore.removeReference(previousHash);
+                }
+                return null;
+            });
+            userCache.evict(userName, email);
+            processingNanos.add(System.nanoTime() - start);
+            processedCount.increment();
+            LOGGER.info(FILE_SAVED_IN_FILE_SYSTEM + "{}", userName);
+        } catch (IOException | RuntimeException e) {
+            failedCount.increment();
+            LOGGER.error("Could not process profile image of {}: {}", userName, e.getMessage());
+        } finally {
+            deleteQuietly(upload);
+        }
+    }
+
+    private void writeVariants(Path upload, Path directory) throws IOException {
+        BufferedImage image = cropToSquare(readImage(upload));
+        for (int size : PROFILE_IMAGE_SIZES) {
+            image = scale(image, size);
+            ImageIO.write(image, JPG_EXTENSION, directory.resolve(size + DOT + JPG_EXTENSION).toFile());
+        }
+    }
+
+    //the dimensions come from the image header and are checked before any pixel is decoded. a small, highly
+    //compressed upload can claim enough pixels to fill the heap of the worker once decoded
+    private BufferedImage readImage(Path upload) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(upload.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if(readers == null || !readers.hasNext())
+            {
+                throw new IOException("unreadable image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long width = reader.getWidth(0);
+                long height = reader.getHeight(0);
+                if(width * height > MAXIMUM_IMAGE_PIXELS)
+                {
+                    throw new IOException("image of " + width + "x" + height + " pixels is too large");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage cropToSquare(BufferedImage image) {
+        int side = Math.min(image.getWidth(), image.getHeight());
+        return image.getSubimage((image.getWidth() - side) / 2, (image.getHeight() - side) / 2, side, side);
+    }
+
+    //never scales up, and redraws into an rgb image so transparent pngs and gifs can be written as jpeg.
+    //a single bilinear step over a large factor skips pixels, so big reductions are done in halves
+    private BufferedImage scale(BufferedImage image, int size) {
+        int target = Math.min(size, image.getWidth());
+        BufferedImage scaled = image;
+        int current = image.getWidth();
+        do {
+            current = Math.max(current / 2, target);
+            BufferedImage next = new BufferedImage(current, current, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(scaled, 0, 0, current, current, Color.WHITE, null);
+            } finally {
+                graphics.dispose();
+            }
+            scaled = next;
+        } while (current > target);
+        return scaled;
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+}
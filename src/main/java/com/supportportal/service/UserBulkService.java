@@ -0,0 +1,261 @@
+package com.supportportal.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.supportportal.domain.User;
+import com.supportportal.domain.UserImportResult;
+import com.supportportal.domain.UserRecord;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.supportportal.constant.UserImplementationConstant.*;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+//bulk import and export of users as csv or newline delimited json, both streamed. an import is read and
+//committed in chunks: one query finds every taken userName and email of a chunk and the new users are written
+//with batched inserts. imported users have no password yet, they get one through resetPassword
+@Service
+public class UserBulkService {
+
+    private Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private UserRepository userRepository;
+    private UserService userService;
+    private TransactionTemplate transactionTemplate;
+    private ObjectMapper objectMapper;
+    private CsvMapper csvMapper;
+
+    @Autowired
+    public UserBulkService(UserRepository userRepository, UserService userService, PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.csvMapper = new CsvMapper();
+        this.csvMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    public UserImportResult importUsers(InputStream inputStream, boolean csv, String temporaryImageBaseUrl) throws IOException
+    {
+        UserImportResult result = new UserImportResult();
+        List<UserRecord> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        long recordNumber = 0;
+        try (MappingIterator<UserRecord> records = reader(csv).readValues(inputStream)) {
+            UserRecord record;
+            while ((record = nextRecord(records, recordNumber + 1, result)) != null) {
+                chunk.add(record);
+                recordNumber++;
+                if(chunk.size() == IMPORT_CHUNK_SIZE)
+                {
+                    importChunk(chunk, recordNumber - chunk.size() + 1, temporaryImageBaseUrl, result);
+                    chunk.clear();
+                }
+            }
+        }
+        if(!chunk.isEmpty())
+        {
+            importChunk(chunk, recordNumber - chunk.size() + 1, temporaryImageBaseUrl, result);
+        }
+        LOGGER.info("Imported {} users, rejected {}", result.getImported(), result.getRejected());
+        return result;
+    }
+
+    public void exportUsers(OutputStream outputStream, boolean csv) throws IOException
+    {
+        try (SequenceWriter writer = csv
+                ? csvMapper.writer(csvMapper.schemaFor(UserRecord.class).withHeader()).writeValues(outputStream)
+                : objectMapper.writerFor(UserRecord.class).withRootValueSeparator("\n").writeValues(outputStream)) {
+            userService.streamUsers(user -> {
+                try {
+                    writer.write(new UserRecord(user));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    //null at the end of the input, and at an unreadable record since the rest can not be told apart reliably.
+    //the records before it are still imported
+    private UserRecord nextRecord(MappingIterator<UserRecord> records, long recordNumber, UserImportResult result) {
+        try {
+            return records.hasNextValue() ? records.nextValue() : null;
+        } catch (IOException | RuntimeException e) {
+            reject(result, recordNumber, "unreadable record, import stopped: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private ObjectReader reader(boolean csv) {
+        return csv ? csvMapper.readerFor(UserRecord.class).with(CsvSchema.emptySchema().withHeader()) : objectMapper.readerFor(UserRecord.class);
+    }
+
+    private void importChunk(List<UserRecord> chunk, long firstRecordNumber, String temporaryImageBaseUrl, UserImportResult result) {
+        List<UserRecord> valid = new ArrayList<>();
+        List<Long> validNumbers = new ArrayList<>();
+        Set<String> userNames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            UserRecord record = chunk.get(i);
+            String reason = validate(record, userNames, emails);
+            if(reason != null)
+            {
+                reject(result, firstRecordNumber + i, reason);
+                continue;
+            }
+            valid.add(record);
+            validNumbers.add(firstRecordNumber + i);
+        }
+        if(valid.isEmpty())
+        {
+            return;
+        }
+        UserImportResult chunkResult = new UserImportResult();
+        try {
+            insertNewUsers(valid, validNumbers, temporaryImageBaseUrl, userNames, emails, chunkResult);
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            //a user with one of the names was added after the lookup, the chunk was rolled back. it is imported
+            //again record by record, so only the records that conflict are rejected
+            chunkResult = new UserImportResult();
+            for (int i = 0; i < valid.size(); i++) {
+                UserRecord record = valid.get(i);
+                UserImportResult recordResult = new UserImportResult();
+                try {
+                    insertNewUsers(valid.subList(i, i + 1), validNumbers.subList(i, i + 1), temporaryImageBaseUrl,
+                            Collections.singleton(record.getUserName()), Collections.singleton(record.getEmail()), recordResult);
+                } catch (DataIntegrityViolationException | PersistenceException recordException) {
+                    recordResult = new UserImportResult();
+                    reject(recordResult, validNumbers.get(i), "userName or email was taken during the import " + record.getUserName());
+                }
+                add(chunkResult, recordResult);
+            }
+        }
+        add(result, chunkResult);
+    }
+
+    //one query finds the taken userNames and emails, the rest is written with batched inserts. counts into a
+    //result of its own, which is thrown away when the transaction rolls back
+    private void insertNewUsers(List<UserRecord> records, List<Long> recordNumbers, String temporaryImageBaseUrl,
+                                Set<String> userNames, Set<String> emails, UserImportResult result) {
+        transactionTemplate.execute(status -> {
+            Set<String> takenUserNames = new HashSet<>();
+            Set<String> takenEmails = new HashSet<>();
+            for (Object[] taken : userRepository.findUserNamesAndEmails(userNames, emails)) {
+                takenUserNames.add((String) taken[0]);
+                takenEmails.add((String) taken[1]);
+            }
+            Date now = new Date();
+            for (int i = 0; i < records.size(); i++) {
+                UserRecord record = records.get(i);
+                if(takenUserNames.contains(record.getUserName()))
+                {
+                    reject(result, recordNumbers.get(i), USERNAME_ALREADY_EXITS + " " + record.getUserName());
+                }
+                else if(takenEmails.contains(record.getEmail()))
+                {
+                    reject(result, recordNumbers.get(i), EMAIL_ALREADY_TAKEN + " " + record.getEmail());
+                }
+                else
+                {
+                    entityManager.persist(toUser(record, now, temporaryImageBaseUrl));
+                    result.setImported(result.getImported() + 1);
+                }
+            }
+            //sends the batched inserts and keeps the persistence context from growing with the file
+            entityManager.flush();
+            entityManager.clear();
+            return null;
+        });
+    }
+
+    private String validate(UserRecord record, Set<String> userNames, Set<String> emails) {
+        if(isBlank(record.getUserName()) || isBlank(record.getEmail()))
+        {
+            return "userName and email are required";
+        }
+        if(!isBlank(record.getRole()))
+        {
+            try {
+                Role.valueOf(record.getRole().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return "unknown role " + record.getRole();
+            }
+        }
+        if(!userNames.add(record.getUserName()))
+        {
+            return "userName appears twice in the file " + record.getUserName();
+        }
+        if(!emails.add(record.getEmail()))
+        {
+            userNames.remove(record.getUserName());
+            return "email appears twice in the file " + record.getEmail();
+        }
+        return null;
+    }
+
+    private User toUser(UserRecord record, Date now, String temporaryImageBaseUrl) {
+        Role role = isBlank(record.getRole()) ? Role.ROLE_USER : Role.valueOf(record.getRole().toUpperCase());
+        return User.builder()
+                .userId(RandomStringUtils.randomNumeric(10))
+                .firstName(record.getFirstName())
+                .lastName(record.getLastName())
+                .userName(record.getUserName())
+                .email(record.getEmail())
+                .joinDate(now)
+                .isActive(record.getActive() == null || record.getActive())
+                .isNotLocked(record.getNotLocked() == null || record.getNotLocked())
+                .role(role.name())
+                .profileImageUrl(temporaryImageBaseUrl + record.getUserName())
+                .build();
+    }
+
+    private void add(UserImportResult result, UserImportResult chunkResult) {
+        result.setImported(result.getImported() + chunkResult.getImported());
+        result.setRejected(result.getRejected() + chunkResult.getRejected());
+        for (String rejection : chunkResult.getRejections()) {
+            if(result.getRejections().size() < MAXIMUM_REPORTED_REJECTIONS)
+            {
+                result.getRejections().add(rejection);
+            }
+        }
+    }
+
+    private void reject(UserImportResult result, long recordNumber, String reason) {
+        result.setRejected(result.getRejected() + 1);
+        if(result.getRejections().size() < MAXIMUM_REPORTED_REJECTIONS)
+        {
+            result.getRejections().add("record " + recordNumber + ": " + reason);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.supportportal.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.supportportal.domain.User;
+import com.supportportal.domain.UserResponse;
+import com.supportportal.utility.ReadYourWritesTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+//read through cache of users by userName and by email. it holds the immutable UserResponse of a user, never the
+//entity, so callers can not change what others read and the password hash is not kept around. writers evict the keys of the user they change,
+//once right away and once more when their transaction completes, so a reader can not put the old row back
+//in between. a key written less than the replica lag ago is not cached either, the replica may still hold the
+//old row. other nodes only see a change after USER_CACHE_EXPIRATION_MINUTES
+@Service
+public class UserCache {
+
+    private static final long USER_CACHE_MAXIMUM_SIZE = 10_000;
+    private static final long USER_CACHE_EXPIRATION_MINUTES = 5;
+
+    private final Cache<String, UserResponse> usersByUserName = newCache();
+    private final Cache<String, UserResponse> usersByEmail = newCache();
+    //bumped on every eviction, a load that started before an eviction is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final Cache<String, Boolean> recentlyWritten;
+
+    @Autowired
+    public UserCache(ReadYourWritesTracker readYourWritesTracker) {
+        long maxLagMillis = readYourWritesTracker.getMaxLagMillis();
+        recentlyWritten = maxLagMillis == 0 ? null : CacheBuilder.newBuilder()
+                .maximumSize(USER_CACHE_MAXIMUM_SIZE)
+                .expireAfterWrite(maxLagMillis, TimeUnit.MILLISECONDS)
+                .<String, Boolean>build();
+    }
+
+    public UserResponse getByUserName(String userName, Function<String, User> loader)
+    {
+        return get(usersByUserName, userName, loader);
+    }
+
+    public UserResponse getByEmail(String email, Function<String, User> loader)
+    {
+        return get(usersByEmail, email, loader);
+    }
+
+    public void evict(User user)
+    {
+        evict(user.getUserName(), user.getEmail());
+    }
+
+    public void evict(String userName, String email)
+    {
+        invalidate(userName, email);
+        if(TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(userName, email);
+                }
+            });
+        }
+    }
+
+    public CacheStats getUserNameStats() {
+        return usersByUserName.stats();
+    }
+
+    public CacheStats getEmailStats() {
+        return usersByEmail.stats();
+    }
+
+    private UserResponse get(Cache<String, UserResponse> cache, String key, Function<String, User> loader) {
+        if(key == null)
+        {
+            return UserResponse.from(loader.apply(null));
+        }
+        UserResponse user = cache.getIfPresent(key);
+        if(user == null)
+        {
+            long loadGeneration = generation.get();
+            user = UserResponse.from(loader.apply(key));
+            if(user != null && generation.get() == loadGeneration && !isRecentlyWritten(key))
+            {
+                cache.put(key, user);
+            }
+        }
+        return user;
+    }
+
+    private boolean isRecentlyWritten(String key) {
+        return recentlyWritten != null && recentlyWritten.getIfPresent(key) != null;
+    }
+
+    private void invalidate(String userName, String email) {
+        generation.incrementAndGet();
+        if(recentlyWritten != null)
+        {
+            if(userName != null)
+            {
+                recentlyWritten.put(userName, Boolean.TRUE);
+            }
+            if(email != null)
+            {
+                recentlyWritten.put(email, Boolean.TRUE);
+            }
+        }
+        if(userName != null)
+        {
+            usersByUserName.invalidate(userName);
+        }
+        if(email != null)
+        {
+            usersByEmail.invalidate(email);
+        }
+    }
+
+    private static Cache<String, UserResponse> newCache() {
+        return CacheBuilder.newBuilder()
+                .maximumSize(USER_CACHE_MAXIMUM_SIZE)
+                .expireAfterWrite(USER_CACHE_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+    }
+}
@@ -1,24 +1,35 @@
 package com.supportportal.service;
 
 import com.supportportal.domain.User;
+import com.supportportal.domain.UserPage;
+import com.supportportal.domain.UserResponse;
+import com.supportportal.domain.UserSearchPage;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface UserService {
 
     User register(String firstName, String lastName, String userName, String email);
 
-    List<User> getUsers();
+    List<UserResponse> getUsers();
 
-    User findByUserName(String userName);
+    UserPage getUsers(Long after, int size);
 
-    User findUserByEmail(String email);
+    void streamUsers(Consumer<UserResponse> consumer);
 
-    Optional<User> addNewUser(String firstName, String lastName, String userName, String email, String role, boolean isNonLocked, boolean isActive, MultipartFile profileImage);
+    UserSearchPage searchUsers(String query, String field, boolean substring, String role, Boolean isActive, Boolean isNotLocked, int page, int size, String sort, boolean descending);
 
-    Optional<User> updateUser(String currentUserName, String newFirstName, String newLastName, String newUserName, String newEmail, String role, boolean isNonLocked, boolean isActive, MultipartFile profileImage);
+    UserResponse findByUserName(String userName);
+
+    UserResponse findUserByEmail(String email);
+
+    Optional<User> addNewUser(String firstName, String lastName, String userName, String email, String role, boolean isActive, boolean isNonLocked, MultipartFile profileImage);
+
+    Optional<User> updateUser(String currentUserName, String newFirstName, String newLastName, String newUserName, String newEmail, String role, boolean isActive, boolean isNonLocked, MultipartFile profileImage);
 
     void deleteUser(String userName);
 
@@ -26,4 +37,6 @@ public interface UserService {
 
     Optional<User> updateProfileImage(String userName, MultipartFile profileImage);
 
+    CompletableFuture<String> encodePassword(String password);
+
 }
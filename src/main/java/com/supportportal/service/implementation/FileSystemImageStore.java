@@ -0,0 +1,190 @@
+package com.supportportal.service.implementation;
+
+import com.google.common.util.concurrent.Striped;
+import com.supportportal.domain.StoredImage;
+import com.supportportal.repository.StoredImageRepository;
+import com.supportportal.service.ImageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.concurrent.locks.Lock;
+import java.util.regex.Pattern;
+
+import static com.supportportal.constant.FileConstant.*;
+
+//images under IMAGE_STORE_FOLDER/<first two hash characters>/<hash>/, reference counts in the database. the
+//collector only removes files while it holds the lock on the deleted row, a per hash lock also keeps it and
+//new references on this node apart. a reference to an image whose files are missing writes them again
+@Service
+public class FileSystemImageStore implements ImageStore {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern FILE_NAME = Pattern.compile("[0-9A-Za-z_-]+\\.[a-z]+");
+
+    private Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private final Striped<Lock> locks = Striped.lock(64);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private StoredImageRepository storedImageRepository;
+    private TransactionTemplate transactionTemplate;
+    private Path root;
+    private long gcGrace;
+
+    @Autowired
+    public FileSystemImageStore(StoredImageRepository storedImageRepository, PlatformTransactionManager transactionManager,
+                                @Value("${image.gc-grace}") long gcGrace) {
+        this.storedImageRepository = storedImageRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.root = Paths.get(IMAGE_STORE_FOLDER).toAbsolutePath().normalize();
+        this.gcGrace = gcGrace;
+    }
+
+    @Override
+    public void addReference(String hash, ImageWriter writer) throws IOException
+    {
+        Lock lock = locks.get(hash);
+        lock.lock();
+        try {
+            reference(hash);
+            Path directory = directory(hash);
+            if(!Files.isDirectory(directory))
+            {
+                try {
+                    write(directory, writer);
+                } catch (IOException | RuntimeException e) {
+                    removeReference(hash);
+                    throw e;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeReference(String hash)
+    {
+        transactionTemplate.execute(status -> {
+            storedImageRepository.removeReference(hash);
+            return storedImageRepository.markUnreferenced(hash, new Date());
+        });
+    }
+
+    @Override
+    public Path getImageFile(String hash, String fileName)
+    {
+        if(!HASH.matcher(hash).matches() || !FILE_NAME.matcher(fileName).matches())
+        {
+            return null;
+        }
+        return directory(hash).resolve(fileName);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${image.gc-interval}")
+    public void collectGarbage()
+    {
+        int collected = 0;
+        for (String hash : storedImageRepository.findUnreferencedSince(new Date(System.currentTimeMillis() - gcGrace))) {
+            Lock lock = locks.get(hash);
+            lock.lock();
+            try {
+                Path collectedDirectory = transactionTemplate.execute(status -> deleteUnreferenced(hash));
+                if(collectedDirectory != null)
+                {
+                    FileSystemUtils.deleteRecursively(collectedDirectory);
+                    collected++;
+                }
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Could not collect image {}: {}", hash, e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+        if(collected > 0)
+        {
+            LOGGER.info("Collected {} unreferenced images", collected);
+        }
+    }
+
+    //the row is deleted and the image directory moved aside in one transaction. the deleted row stays locked until
+    //the commit, so a reference added on another node meanwhile waits for it, then finds the files gone and
+    //writes them again. a failed move rolls the delete back and leaves the image as it was
+    private Path deleteUnreferenced(String hash) {
+        if(storedImageRepository.deleteUnreferenced(hash) != 1)
+        {
+            return null;
+        }
+        Path directory = directory(hash);
+        Path collectedDirectory = directory.resolveSibling(".collected-" + hash);
+        try {
+            FileSystemUtils.deleteRecursively(collectedDirectory);
+            if(Files.exists(directory))
+            {
+                Files.move(directory, collectedDirectory, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return collectedDirectory;
+    }
+
+    private void reference(String hash) {
+        try {
+            transactionTemplate.execute(status -> referenceInTransaction(hash));
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            //another node stored the same image first, the row exists now so the update finds it
+            transactionTemplate.execute(status -> referenceInTransaction(hash));
+        }
+    }
+
+    private Object referenceInTransaction(String hash) {
+        if(storedImageRepository.addReference(hash) == 0)
+        {
+            entityManager.persist(new StoredImage(hash, 1));
+            entityManager.flush();
+        }
+        return null;
+    }
+
+    //the files are written into a temporary directory that is then renamed, readers see all of them or none
+    private void write(Path directory, ImageWriter writer) throws IOException {
+        Files.createDirectories(directory.getParent());
+        Path temporary = Files.createTempDirectory(directory.getParent(), ".upload");
+        try {
+            writer.write(temporary);
+            Files.move(temporary, directory, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+            //another node wrote the same image in the meantime, its files have the same content
+        } finally {
+            FileSystemUtils.deleteRecursively(temporary);
+        }
+    }
+
+    private Path directory(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+}
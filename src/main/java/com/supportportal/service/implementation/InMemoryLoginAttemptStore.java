@@ -0,0 +1,149 @@
+package com.supportportal.service.implementation;
+
+import com.google.common.cache.CacheBuilder;
+import com.supportportal.service.LoginAttemptStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+//in process store: failed login attempts per userName over a sliding window, as lock free counters in a concurrent map.
+//the map is bounded like the cache it replaced, failed logins for made up userNames evict the least recently used
+//counters instead of growing the heap until the next sweep.
+//each counter is one packed long: | window index (32 bits) | previous window count (16) | current window count (16) |
+//the attempts in the window are estimated as current + previous weighted by how much of it still overlaps the window
+@Service
+@ConditionalOnProperty(name = "login-attempt.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryLoginAttemptStore implements LoginAttemptStore {
+
+    public static final int ATTEMPT_INCREMENT = 1;
+    private static final long WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final long SWEEP_INTERVAL_MILLIS = 60_000;
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final long MAXIMUM_TRACKED_USERS = 100_000;
+    private static final int MAXIMUM_COUNT = 0xFFFF;
+
+    private final ConcurrentMap<String, AtomicLong> loginAttempts;
+    private final LongSupplier clock;
+
+    public InMemoryLoginAttemptStore()
+    {
+        this(System::currentTimeMillis, MAXIMUM_TRACKED_USERS);
+    }
+
+    InMemoryLoginAttemptStore(LongSupplier clock, long maximumTrackedUsers)
+    {
+        this.loginAttempts = CacheBuilder.newBuilder()
+                .initialCapacity((int) Math.min(INITIAL_CAPACITY, maximumTrackedUsers))
+                .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                .maximumSize(maximumTrackedUsers)
+                .<String, AtomicLong>build()
+                .asMap();
+        this.clock = clock;
+    }
+
+    @Override
+    public void reset(String userName)
+    {
+        loginAttempts.remove(userName);
+    }
+
+    @Override
+    public void addAttempt(String userName)
+    {
+        while (true) {
+            AtomicLong counter = getCounter(userName);
+            long state;
+            long newState;
+            do {
+                state = counter.get();
+                newState = increment(state, windowIndex(clock.getAsLong()));
+            } while (!counter.compareAndSet(state, newState));
+            //the sweeper may have removed this counter while it was expired, count again on the live one
+            if(loginAttempts.get(userName) == counter)
+            {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public int getAttempts(String userName)
+    {
+        AtomicLong counter = loginAttempts.get(userName);
+        if(counter == null)
+        {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        long state = counter.get();
+        long windowIndex = windowIndex(now);
+        long stateWindowIndex = state >>> 32;
+        if(stateWindowIndex == windowIndex)
+        {
+            long overlap = WINDOW_MILLIS - now % WINDOW_MILLIS;
+            return (int) (currentCount(state) + previousCount(state) * overlap / WINDOW_MILLIS);
+        }
+        if(stateWindowIndex == windowIndex - 1)
+        {
+            long overlap = WINDOW_MILLIS - now % WINDOW_MILLIS;
+            return (int) (currentCount(state) * overlap / WINDOW_MILLIS);
+        }
+        return 0;
+    }
+
+    public int getTrackedUserCount() {
+        return loginAttempts.size();
+    }
+
+    @Scheduled(fixedDelay = SWEEP_INTERVAL_MILLIS)
+    public void removeExpiredAttempts()
+    {
+        long windowIndex = windowIndex(clock.getAsLong());
+        for (Map.Entry<String, AtomicLong> entry : loginAttempts.entrySet()) {
+            if((entry.getValue().get() >>> 32) < windowIndex - 1)
+            {
+                loginAttempts.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private AtomicLong getCounter(String userName) {
+        AtomicLong counter = loginAttempts.get(userName);
+        return counter != null ? counter : loginAttempts.computeIfAbsent(userName, key -> new AtomicLong());
+    }
+
+    private long increment(long state, long windowIndex) {
+        long stateWindowIndex = state >>> 32;
+        if(stateWindowIndex == windowIndex)
+        {
+            return pack(windowIndex, previousCount(state), Math.min(currentCount(state) + ATTEMPT_INCREMENT, MAXIMUM_COUNT));
+        }
+        if(stateWindowIndex == windowIndex - 1)
+        {
+            return pack(windowIndex, currentCount(state), ATTEMPT_INCREMENT);
+        }
+        return pack(windowIndex, 0, ATTEMPT_INCREMENT);
+    }
+
+    private long windowIndex(long now) {
+        return now / WINDOW_MILLIS;
+    }
+
+    private long pack(long windowIndex, long previousCount, long currentCount) {
+        return windowIndex << 32 | previousCount << 16 | currentCount;
+    }
+
+    private long previousCount(long state) {
+        return (state >>> 16) & MAXIMUM_COUNT;
+    }
+
+    private long currentCount(long state) {
+        return state & MAXIMUM_COUNT;
+    }
+}
@@ -0,0 +1,92 @@
+package com.supportportal.service.implementation;
+
+import com.google.common.collect.Iterables;
+import com.supportportal.domain.LoginAttemptCounter;
+import com.supportportal.repository.LoginAttemptCounterRepository;
+import com.supportportal.service.LoginAttemptCounterStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//counters in the application database, shared by every node pointing at the same datasource. userNames are
+//looked up and deleted a few hundred per statement, drivers and databases limit the size of an in list
+@Service
+@ConditionalOnProperty(name = "login-attempt.store", havingValue = "shared")
+public class JpaLoginAttemptCounterStore implements LoginAttemptCounterStore {
+
+    private static final int MAXIMUM_IDS_PER_QUERY = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private LoginAttemptCounterRepository loginAttemptCounterRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public JpaLoginAttemptCounterStore(LoginAttemptCounterRepository loginAttemptCounterRepository, PlatformTransactionManager transactionManager) {
+        this.loginAttemptCounterRepository = loginAttemptCounterRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public Map<String, Integer> addAll(Map<String, Integer> deltas, long windowMillis)
+    {
+        try {
+            return transactionTemplate.execute(status -> addAllInTransaction(deltas, windowMillis));
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            //another node created one of the counters first, it exists now so the updates will find it
+            return transactionTemplate.execute(status -> addAllInTransaction(deltas, windowMillis));
+        }
+    }
+
+    @Override
+    public Map<String, Integer> getAll(Collection<String> userNames, long windowMillis)
+    {
+        long windowFloor = System.currentTimeMillis() - windowMillis;
+        Map<String, Integer> totals = new HashMap<>();
+        for (List<String> chunk : Iterables.partition(userNames, MAXIMUM_IDS_PER_QUERY)) {
+            for (LoginAttemptCounter counter : loginAttemptCounterRepository.findAllById(chunk)) {
+                totals.put(counter.getUserName(), counter.getWindowStart() >= windowFloor ? counter.getAttempts() : 0);
+            }
+        }
+        return totals;
+    }
+
+    @Override
+    public void deleteAll(Collection<String> userNames)
+    {
+        transactionTemplate.execute(status -> {
+            for (List<String> chunk : Iterables.partition(userNames, MAXIMUM_IDS_PER_QUERY)) {
+                loginAttemptCounterRepository.deleteByUserNames(chunk);
+            }
+            return null;
+        });
+    }
+
+    private Map<String, Integer> addAllInTransaction(Map<String, Integer> deltas, long windowMillis) {
+        long now = System.currentTimeMillis();
+        long windowFloor = now - windowMillis;
+        for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+            String userName = delta.getKey();
+            if(loginAttemptCounterRepository.addAttempts(userName, delta.getValue(), windowFloor) == 0
+                    && loginAttemptCounterRepository.restartWindow(userName, delta.getValue(), now, windowFloor) == 0)
+            {
+                entityManager.persist(new LoginAttemptCounter(userName, delta.getValue(), now));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return getAll(deltas.keySet(), windowMillis);
+    }
+}
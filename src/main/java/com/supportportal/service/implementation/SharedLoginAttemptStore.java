@@ -0,0 +1,155 @@
+package com.supportportal.service.implementation;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.supportportal.service.LoginAttemptCounterStore;
+import com.supportportal.service.LoginAttemptStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+//cluster wide store: attempts are counted locally and pushed to the shared counters in batches by a
+//background sync, which also pulls back the totals other nodes contributed. callers never wait on the
+//shared store, so a node can be behind the cluster by at most one sync interval
+@Service
+@ConditionalOnProperty(name = "login-attempt.store", havingValue = "shared")
+public class SharedLoginAttemptStore implements LoginAttemptStore {
+
+    private static final long WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final long MAXIMUM_KNOWN_USERS = 100_000;
+
+    private Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private final Map<String, Integer> pendingAttempts = new ConcurrentHashMap<>();
+    private final Set<String> pendingResets = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingReads = ConcurrentHashMap.newKeySet();
+    //last nonzero totals read from the shared store, they expire with the window. a userName without attempts is
+    //not kept, it is read again the next time somebody logs in with it
+    private final Cache<String, Integer> sharedAttempts = CacheBuilder.newBuilder()
+            .expireAfterWrite(WINDOW_MILLIS, TimeUnit.MILLISECONDS)
+            .maximumSize(MAXIMUM_KNOWN_USERS)
+            .build();
+
+    private LoginAttemptCounterStore loginAttemptCounterStore;
+
+    @Autowired
+    public SharedLoginAttemptStore(LoginAttemptCounterStore loginAttemptCounterStore) {
+        this.loginAttemptCounterStore = loginAttemptCounterStore;
+    }
+
+    @Override
+    public void addAttempt(String userName)
+    {
+        pendingAttempts.merge(userName, 1, Integer::sum);
+    }
+
+    @Override
+    public void reset(String userName)
+    {
+        pendingAttempts.remove(userName);
+        sharedAttempts.invalidate(userName);
+        pendingResets.add(userName);
+    }
+
+    @Override
+    public int getAttempts(String userName)
+    {
+        Integer shared = sharedAttempts.getIfPresent(userName);
+        if(shared == null)
+        {
+            pendingReads.add(userName);
+            shared = 0;
+        }
+        return shared + pendingAttempts.getOrDefault(userName, 0);
+    }
+
+    @Scheduled(fixedDelayString = "${login-attempt.sync-interval}")
+    public void sync()
+    {
+        Set<String> resets = drain(pendingResets);
+        Set<String> reads = drain(pendingReads);
+        Map<String, Integer> deltas = new HashMap<>();
+        for (String userName : pendingAttempts.keySet()) {
+            Integer delta = pendingAttempts.remove(userName);
+            if(delta != null)
+            {
+                deltas.put(userName, delta);
+            }
+        }
+        //refresh the attempts we already know of as well, other nodes may have added to them
+        reads.addAll(sharedAttempts.asMap().keySet());
+        reads.removeAll(deltas.keySet());
+        reads.removeAll(resets);
+        //a failed step is retried on the next sync together with the steps after it, the steps before it already
+        //reached the shared store and must not be applied twice
+        try {
+            if(!resets.isEmpty())
+            {
+                loginAttemptCounterStore.deleteAll(resets);
+            }
+        } catch (RuntimeException e) {
+            retryLater(e, resets, deltas, reads);
+            return;
+        }
+        try {
+            if(!deltas.isEmpty())
+            {
+                remember(loginAttemptCounterStore.addAll(deltas, WINDOW_MILLIS), deltas.keySet());
+            }
+        } catch (RuntimeException e) {
+            retryLater(e, Collections.emptySet(), deltas, reads);
+            return;
+        }
+        try {
+            if(!reads.isEmpty())
+            {
+                remember(loginAttemptCounterStore.getAll(reads, WINDOW_MILLIS), reads);
+            }
+        } catch (RuntimeException e) {
+            retryLater(e, Collections.emptySet(), Collections.emptyMap(), reads);
+        }
+    }
+
+    private void remember(Map<String, Integer> totals, Set<String> userNames) {
+        for (String userName : userNames) {
+            int total = totals.getOrDefault(userName, 0);
+            if(total > 0)
+            {
+                sharedAttempts.put(userName, total);
+            }
+            else
+            {
+                sharedAttempts.invalidate(userName);
+            }
+        }
+    }
+
+    private void retryLater(RuntimeException e, Set<String> resets, Map<String, Integer> deltas, Set<String> reads) {
+        LOGGER.error("Could not sync login attempts with the shared store: {}", e.getMessage());
+        pendingResets.addAll(resets);
+        deltas.forEach((userName, delta) -> pendingAttempts.merge(userName, delta, Integer::sum));
+        pendingReads.addAll(reads);
+    }
+
+    private Set<String> drain(Set<String> pending) {
+        Set<String> drained = new HashSet<>();
+        for (String userName : pending) {
+            if(pending.remove(userName))
+            {
+                drained.add(userName);
+            }
+        }
+        return drained;
+    }
+}
@@ -1,46 +1,60 @@
 package com.supportportal.service.implementation;
 
 import com.supportportal.domain.User;
+import com.supportportal.domain.UserPage;
 import com.supportportal.domain.UserPrincipal;
+import com.supportportal.domain.UserResponse;
+import com.supportportal.domain.UserSearchPage;
 import com.supportportal.enumeration.Role;
 import com.supportportal.exception.EmailExistException;
 import com.supportportal.exception.EmailNotFoundException;
 import com.supportportal.exception.NotAnImageFileException;
 import com.supportportal.exception.UserNameExistException;
 import com.supportportal.repository.UserRepository;
+import com.supportportal.repository.UserSpecifications;
 import com.supportportal.service.EmailService;
+import com.supportportal.service.ImageStore;
+import com.supportportal.service.LastLoginRecorder;
 import com.supportportal.service.LoginAttempt;
+import com.supportportal.service.PasswordHasher;
+import com.supportportal.service.ProfileImageProcessor;
+import com.supportportal.service.UserCache;
 import com.supportportal.service.UserService;
+import com.supportportal.utility.CredentialVerificationCache;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
-import org.apache.tomcat.util.http.fileupload.FileUtils;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.supportportal.constant.FileConstant.*;
 import static com.supportportal.constant.UserImplementationConstant.*;
 import static com.supportportal.enumeration.Role.*;
-import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static org.apache.commons.lang3.StringUtils.*;
 import static org.springframework.http.MediaType.*;
 
@@ -54,44 +68,61 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
     private UserRepository userRepository;
 
-    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    private PasswordHasher passwordHasher;
 
     private LoginAttempt loginAttempt;
 
     private EmailService emailService;
 
+    private LastLoginRecorder lastLoginRecorder;
+
+    private UserCache userCache;
+
+    private ProfileImageProcessor profileImageProcessor;
+
+    private ImageStore imageStore;
+
+    private CredentialVerificationCache credentialVerificationCache;
+
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, BCryptPasswordEncoder bCryptPasswordEncoder,  LoginAttempt loginAttempt, EmailService emailService) {
+    public UserServiceImpl(UserRepository userRepository, PasswordHasher passwordHasher,  LoginAttempt loginAttempt, EmailService emailService, LastLoginRecorder lastLoginRecorder, UserCache userCache, ProfileImageProcessor profileImageProcessor, ImageStore imageStore, CredentialVerificationCache credentialVerificationCache) {
         this.userRepository = userRepository;
-        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        this.passwordHasher = passwordHasher;
         this.loginAttempt = loginAttempt;
         this.emailService = emailService;
+        this.lastLoginRecorder = lastLoginRecorder;
+        this.userCache = userCache;
+        this.profileImageProcessor = profileImageProcessor;
+        this.imageStore = imageStore;
+        this.credentialVerificationCache = credentialVerificationCache;
     }
 
+    //read only: the changes made to the user here are written later by LastLoginRecorder
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String userName) throws UsernameNotFoundException {
         User user = userRepository.findUserByUserName(userName);
         if(user==null)
         {
-            LOGGER.error("User not Found by userName: "+userName);
+            LOGGER.error("User not Found by userName: {}", userName);
             throw new UsernameNotFoundException("User not Found by userName: "+userName);
         }
         validateLoginAttempt(user);
-        user.setLastLoginDateDisplay(user.getLastLoginDate());
-        user.setLastLoginDate(new Date());
-        userRepository.save(user);
+        lastLoginRecorder.recordLogin(user);
         //user prinicpal implements userdetails thats why we are returning this
         UserPrincipal userPrincipal = new UserPrincipal(user);
-        LOGGER.info("Returning found user by userName: " + userName);
+        LOGGER.debug("Returning found user by userName: {}", userName);
         return userPrincipal;
     }
 
     private void validateLoginAttempt(User user) {
+        //failed attempts are counted by AuthenticationFailureListener, a successful login resets them
         if(user.isNotLocked())
         {
-            loginAttempt.addUserToLoginAttempts(user.getUserName());
             if(loginAttempt.hasExceededMaxAttempts(user.getUserName())){
                 user.setNotLocked(false);
+                credentialVerificationCache.invalidate(user.getUserName());
+                lastLoginRecorder.recordLock(user);
             }else {
                 user.setNotLocked(true);
             }
@@ -105,9 +136,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     @Override
     public User register(String firstName, String lastName, String userName, String email) {
 
-        validateNewUserNameAndEmail(EMPTY, userName,email);
         String password=generatePassword();
-        String encodedPassword=encodePasswordMethod(password);
         User user = User.builder()
                 .userId(generateUserId())
                 .firstName(firstName)
@@ -117,26 +146,20 @@ public class UserServiceImpl implements UserService, UserDetailsService {
                 .email(email)
                 .isNotLocked(true)
                 .role(ROLE_ADMIN.name())
-                .authorities(ROLE_ADMIN.getAuthorities())
                 .joinDate(new Date())
-                .password(encodedPassword)
+                .password(encodePassword(password).join())
                 .profileImageUrl(getTemporaryImageUrl(userName))
                 .build();
-        userRepository.save(user);
-        LOGGER.info("New user password: "+ password);
-        //emailService.sendNewPasswordEmail(firstName,password,email);
+        saveUniqueUser(user);
+        //the password only goes out in the email, never into the log
+        LOGGER.info("Registered new user {}", userName);
+        emailService.sendNewPasswordEmail(firstName,password,email);
         return user;
     }
 
     @Override
-    public Optional<User> addNewUser(String firstName, String lastName, String userName, String email, String role, boolean isNonLocked, boolean isActive, MultipartFile profileImage) {
-        User addNewUserValidated = validateNewUserNameAndEmail(EMPTY, userName,email);
-        if(addNewUserValidated!=null)
-        {
-            return Optional.empty();
-        }
+    public Optional<User> addNewUser(String firstName, String lastName, String userName, String email, String role, boolean isActive, boolean isNonLocked, MultipartFile profileImage) {
         String password=generatePassword();
-        String encodedPassword=encodePasswordMethod(password);
         User user = User.builder()
                 .userId(generateUserId())
                 .userName(userName)
@@ -146,63 +169,115 @@ public class UserServiceImpl implements UserService, UserDetailsService {
                 .isNotLocked(isNonLocked)
                 .isActive(isActive)
                 .email(email)
-                .password(encodedPassword)
+                .password(encodePassword(password).join())
                 .role(getRoleEnumName(role).name())
-                .authorities(getRoleEnumName(role).getAuthorities())
                 .profileImageUrl(getTemporaryImageUrl(userName))
                 .build();
-        userRepository.save(user);
+        saveUniqueUser(user);
         saveProfileImage(user, profileImage);
         return Optional.of(user);
     }
 
     @Override
-    public Optional<User> updateUser(String currentUserName, String newFirstName, String newLastName, String newUserName, String newEmail, String role, boolean isNonLocked, boolean isActive, MultipartFile profileImage) {
-        User currentUser = validateNewUserNameAndEmail(currentUserName, newUserName,newEmail);
-        if(currentUser==null)
-        {
-            return Optional.empty();
-        }
-        currentUser.builder()
-                .firstName(newFirstName)
-                .lastName(newLastName)
-                .email(newEmail)
-                .isActive(isActive)
-                .isNotLocked(isNonLocked)
-                .role(getRoleEnumName(role).name())
-                .authorities(getRoleEnumName(role).getAuthorities())
-                .build();
-        userRepository.save(currentUser);
+    public Optional<User> updateUser(String currentUserName, String newFirstName, String newLastName, String newUserName, String newEmail, String role, boolean isActive, boolean isNonLocked, MultipartFile profileImage) {
+        User currentUser = findCurrentUser(currentUserName);
+        lastLoginRecorder.cancelLock(currentUser);
+        //the old userName and email stop resolving to this user
+        userCache.evict(currentUser);
+        credentialVerificationCache.invalidate(currentUser.getUserName());
+        currentUser.setFirstName(newFirstName);
+        currentUser.setLastName(newLastName);
+        currentUser.setUserName(newUserName);
+        currentUser.setEmail(newEmail);
+        currentUser.setActive(isActive);
+        currentUser.setNotLocked(isNonLocked);
+        currentUser.setRole(getRoleEnumName(role).name());
+        saveUniqueUser(currentUser);
+        userCache.evict(currentUser);
         saveProfileImage(currentUser,profileImage);
         return Optional.of(currentUser);
     }
 
     @Override
-    public List<User> getUsers() {
-        return userRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<UserResponse> getUsers() {
+        return userRepository.findAllResponses();
     }
 
     @Override
-    public User findByUserName(String userName) {
-        return userRepository.findUserByUserName(userName);
+    @Transactional(readOnly = true)
+    public UserPage getUsers(Long after, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAXIMUM_PAGE_SIZE));
+        List<UserResponse> users = userRepository.findResponsesByIdGreaterThan(after == null ? 0L : after, PageRequest.of(0, pageSize));
+        Long nextCursor = users.size() < pageSize ? null : users.get(users.size() - 1).getId();
+        return new UserPage(users, nextCursor);
     }
 
     @Override
-    public User findUserByEmail(String email) {
+    @Transactional(readOnly = true)
+    public void streamUsers(Consumer<UserResponse> consumer) {
+        //the projection never enters the persistence context, memory stays flat however many users are streamed
+        try (Stream<UserResponse> users = userRepository.streamAllResponses()) {
+            users.forEach(consumer);
+        }
+    }
 
-        return userRepository.findUserByEmail(email);
+    @Override
+    @Transactional(readOnly = true)
+    public UserSearchPage searchUsers(String query, String field, boolean substring, String role, Boolean isActive, Boolean isNotLocked, int page, int size, String sort, boolean descending) {
+        Specification<User> specification = Specification.where(null);
+        if(isNotBlank(query))
+        {
+            String[] fields = Arrays.asList(SEARCH_FIELDS).contains(field) ? new String[]{field} : SEARCH_FIELDS;
+            specification = specification.and(UserSpecifications.matches(query.trim(), substring, fields));
+        }
+        if(isNotBlank(role))
+        {
+            specification = specification.and(UserSpecifications.hasRole(getRoleEnumName(role).name()));
+        }
+        if(isActive != null)
+        {
+            specification = specification.and(UserSpecifications.isActive(isActive));
+        }
+        if(isNotLocked != null)
+        {
+            specification = specification.and(UserSpecifications.isNotLocked(isNotLocked));
+        }
+        //only indexed columns can be sorted on, the id keeps the order of equal values stable between pages
+        String sortField = Arrays.asList(SEARCH_SORT_FIELDS).contains(sort) ? sort : DEFAULT_SEARCH_SORT;
+        Sort order = Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, sortField).and(Sort.by("id"));
+        int pageSize = Math.max(1, Math.min(size, MAXIMUM_PAGE_SIZE));
+        Page<User> users = userRepository.findAll(specification, PageRequest.of(Math.max(0, page), pageSize, order));
+        List<UserResponse> responses = users.getContent().stream().map(UserResponse::from).collect(Collectors.toList());
+        return new UserSearchPage(responses, users.getNumber(), pageSize, users.getTotalElements(), users.getTotalPages());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserResponse findByUserName(String userName) {
+        return userCache.getByUserName(userName, userRepository::findUserByUserName);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserResponse findUserByEmail(String email) {
+
+        return userCache.getByEmail(email, userRepository::findUserByEmail);
     }
 
     @Override
     public void deleteUser(String userName) {
         User userByUserName = userRepository.findUserByUserName(userName);
-        Path userFolder = Paths.get(USER_FOLDER + userByUserName.getUserName()).toAbsolutePath().normalize();
-        try {
-            FileUtils.deleteDirectory(new File(userFolder.toString()));
-        } catch (IOException e) {
-            e.printStackTrace();
+        //the image files are collected in the background once nobody references them
+        if(userByUserName.getProfileImageHash() != null)
+        {
+            imageStore.removeReference(userByUserName.getProfileImageHash());
         }
+        profileImageProcessor.deleteUserFolder(userByUserName.getUserName());
         userRepository.deleteById(userByUserName.getId());
+        lastLoginRecorder.cancelLock(userByUserName);
+        userCache.evict(userByUserName);
+        credentialVerificationCache.invalidate(userByUserName.getUserName());
     }
 
     @Override
@@ -213,90 +288,83 @@ public class UserServiceImpl implements UserService, UserDetailsService {
             throw new EmailNotFoundException(NO_USER_FOUND_BY_EMAIL + email);
         }
         String password = generatePassword();
-        user.builder()
-                .password(encodePasswordMethod(password))
-                .build();
+        user.setPassword(encodePassword(password).join());
+        //the saved row carries the lock state loaded above, a queued lock would overwrite it after the reset
+        lastLoginRecorder.cancelLock(user);
         userRepository.save(user);
-        //emailService.sendNewPasswordEmail(user.getFirstName(),user.getPassword(), user.getEmail());
+        userCache.evict(user);
+        credentialVerificationCache.invalidate(user.getUserName());
+        emailService.sendNewPasswordEmail(user.getFirstName(),password, user.getEmail());
+    }
+
+    //hashing needs no database, callers outside a transaction should not start one for it
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CompletableFuture<String> encodePassword(String password) {
+        return passwordHasher.encodeAsync(password);
     }
 
     @Override
     public Optional<User> updateProfileImage(String userName, MultipartFile profileImage) {
-        User user = validateNewUserNameAndEmail(userName, null, null);
-        if(user==null)
-        {
-            return Optional.empty();
-        }
+        User user = findCurrentUser(userName);
         saveProfileImage(user,profileImage);
         return Optional.of(user);
     }
 
 
-    public User validateNewUserNameAndEmail(String currentUserName, String newUserName, String newEmail)
-    {
-        User userByNewUserName = findByUserName(newUserName);
-        User userByNewEmail = findUserByEmail(newEmail);
-        if(isNotBlank(currentUserName))
+    private User findCurrentUser(String currentUserName) {
+        User currentUser = userRepository.findUserByUserName(currentUserName);
+        if(currentUser==null)
         {
-            User currentUser = userRepository.findUserByUserName(currentUserName);
-            if(currentUser==null)
-            {
-                throw new UsernameNotFoundException(NO_USER_FOUND_BY_USER_NAME + " " + currentUserName);
-            }
-            if(userByNewUserName!=null&& !currentUser.getId().equals(userByNewUserName.getId()))
+            throw new UsernameNotFoundException(NO_USER_FOUND_BY_USER_NAME + " " + currentUserName);
+        }
+        return currentUser;
+    }
+
+    //the unique keys on userName and email decide whether one is taken. a lookup beforehand would cost two
+    //selects and could still race with a concurrent insert of the same name
+    private void saveUniqueUser(User user) {
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            String violatedConstraint = getViolatedConstraint(e);
+            if(violatedConstraint.contains(UNIQUE_USER_NAME))
             {
-                throw new UserNameExistException(USERNAME_ALREADY_EXITS + " " + userByNewUserName);
+                throw new UserNameExistException(USERNAME_ALREADY_EXITS + " " + user.getUserName());
             }
-            if(userByNewEmail!=null && !currentUser.getId().equals(userByNewEmail.getId()))
+            if(violatedConstraint.contains(UNIQUE_EMAIL))
             {
-                throw new EmailExistException(EMAIL_ALREADY_TAKEN + " " + userByNewEmail);
+                throw new EmailExistException(EMAIL_ALREADY_TAKEN + " " + user.getEmail());
             }
-            return currentUser;
-        }
-        else
-        {
-            if(userByNewUserName!=null)
-                throw new UserNameExistException(USERNAME_ALREADY_EXITS + " " + userByNewUserName);
-            if(userByNewEmail!=null)
-                throw new EmailExistException(EMAIL_ALREADY_TAKEN + " " + userByNewEmail);
-            return null;
+            throw e;
         }
     }
 
+    private String getViolatedConstraint(DataIntegrityViolationException e) {
+        String constraintName = e.getCause() instanceof ConstraintViolationException
+                ? ((ConstraintViolationException) e.getCause()).getConstraintName() : null;
+        return String.valueOf(constraintName != null ? constraintName : e.getMostSpecificCause().getMessage()).toLowerCase();
+    }
+
     private void saveProfileImage(User user, MultipartFile profileImage) {
         if(profileImage!=null)
         {
             if(!Arrays.asList(IMAGE_JPEG_VALUE,IMAGE_PNG_VALUE,IMAGE_GIF_VALUE).contains(profileImage.getContentType())) {
                 throw new NotAnImageFileException(profileImage.getOriginalFilename() + " is not an image file please upload an image");
             }
-            Path userFolder = Paths.get(USER_FOLDER + user.getUserName()).toAbsolutePath().normalize();
-            if(!Files.exists(userFolder))
-            {
-                Path directories = null;
-                try {
-                    Files.createDirectories(userFolder);
-                    LOGGER.info(DIRECTORY_CREATED + " " + userFolder);
-                    Files.deleteIfExists(Paths.get(userFolder+user.getUserName()+DOT+JPG_EXTENSION));
-                    // double check to delete the file or replace the image with name already exists
-                    Files.copy(profileImage.getInputStream(), userFolder.resolve(userFolder+user.getUserName()+DOT+JPG_EXTENSION), REPLACE_EXISTING);
-
-                    user.setProfileImageUrl(setProfileImageUrl(user.getUserName()));
-                    userRepository.save(user);
-
-                    LOGGER.info(FILE_SAVED_IN_FILE_SYSTEM+ profileImage.getOriginalFilename());
-
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
+            //resized and published by the processor after this transaction commits
+            try {
+                profileImageProcessor.submit(user, profileImage, getStoredImageBaseUrl());
+            } catch (IOException e) {
+                LOGGER.error("Could not accept profile image of {}: {}", user.getUserName(), e.getMessage());
             }
         }
 
     }
 
-    private String setProfileImageUrl(String userName) {
+    private String getStoredImageBaseUrl() {
 
-        return ServletUriComponentsBuilder.fromCurrentContextPath().path(USER_IMAGE_PATH + userName + FORWARD_SLASH
-        + userName + DOT + JPG_EXTENSION).toUriString();
+        return ServletUriComponentsBuilder.fromCurrentContextPath().path(STORED_IMAGE_PATH).toUriString();
     }
 
     private Role getRoleEnumName(String role) {
@@ -311,10 +379,6 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         return RandomStringUtils.randomNumeric(10);
     }
 
-    private String encodePasswordMethod(String password) {
-        return bCryptPasswordEncoder.encode(password);
-    }
-
     private String generatePassword() {
         return RandomStringUtils.randomAlphanumeric(10);
     }
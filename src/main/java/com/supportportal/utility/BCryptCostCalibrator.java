@@ -0,0 +1,37 @@
+package com.supportportal.utility;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+//picks the bcrypt cost for this machine: the highest cost whose hash still takes no longer than the target.
+//every cost step doubles the work, so the measurement stops at the first cost over the target. stored hashes
+//carry their own cost and keep verifying after the cost changes
+public class BCryptCostCalibrator {
+
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+    private static final int WARMUP_HASHES = 3;
+
+    private BCryptCostCalibrator() {
+    }
+
+    public static int calibrate(long targetMillis, int minimumCost, int maximumCost)
+    {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minimumCost);
+        //the first hashes run interpreted and would make the minimum cost look slower than it is
+        for (int i = 0; i < WARMUP_HASHES; i++) {
+            encoder.encode(CALIBRATION_PASSWORD);
+        }
+        int cost = minimumCost;
+        while (cost < maximumCost && measureMillis(new BCryptPasswordEncoder(cost + 1)) <= targetMillis) {
+            cost++;
+        }
+        return cost;
+    }
+
+    private static long measureMillis(BCryptPasswordEncoder encoder) {
+        long start = System.nanoTime();
+        encoder.encode(CALIBRATION_PASSWORD);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,85 @@
+package com.supportportal.utility;
+
+import com.supportportal.enumeration.ExecutionMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+//runs the handlers that wait on the database. with web.execution-mode async they run on their own bounded pool
+//and the tomcat thread goes back to serve other requests meanwhile, when the queue is full the tomcat thread
+//runs the handler itself. in the other modes they run right away on the request thread, as plain handlers would
+@Component
+public class BlockingRequestExecutor {
+
+    private long timeout;
+    private ThreadPoolExecutor workers;
+
+    @Autowired
+    public BlockingRequestExecutor(@Value("${web.execution-mode:platform}") ExecutionMode executionMode,
+                                   @Value("${web.async.workers}") int workers,
+                                   @Value("${web.async.queue-size}") int queueSize,
+                                   @Value("${web.async.timeout}") long timeout) {
+        this.timeout = timeout;
+        if(executionMode == ExecutionMode.ASYNC)
+        {
+            this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+    }
+
+    //outside async mode the result is set before the handler returns, CompletedDeferredResultHandler then writes it
+    //on the request thread without starting async processing
+    public <T> DeferredResult<T> submit(Callable<T> handler)
+    {
+        DeferredResult<T> result = new DeferredResult<>(timeout);
+        Runnable task = () -> {
+            try {
+                result.setResult(handler.call());
+            } catch (Exception e) {
+                result.setErrorResult(e);
+            }
+        };
+        if(workers == null)
+        {
+            task.run();
+        }
+        else
+        {
+            //the services look at the caller's authentication
+            workers.execute(new DelegatingSecurityContextRunnable(task));
+        }
+        return result;
+    }
+
+    public boolean isAsync() {
+        return workers != null;
+    }
+
+    public int getQueueDepth() {
+        return workers == null ? 0 : workers.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return workers == null ? 0 : workers.getActiveCount();
+    }
+
+    public long getCompletedCount() {
+        return workers == null ? 0 : workers.getCompletedTaskCount();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if(workers != null)
+        {
+            workers.shutdown();
+        }
+    }
+}
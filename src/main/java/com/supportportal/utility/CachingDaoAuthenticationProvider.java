@@ -0,0 +1,30 @@
+package com.supportportal.utility;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+
+//DaoAuthenticationProvider that skips the bcrypt compare for a password the CredentialVerificationCache has
+//seen pass recently. the user is still loaded and checked for being locked, disabled or expired on every login,
+//and a wrong password always goes through bcrypt
+public class CachingDaoAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final CredentialVerificationCache credentialVerificationCache;
+
+    public CachingDaoAuthenticationProvider(CredentialVerificationCache credentialVerificationCache) {
+        this.credentialVerificationCache = credentialVerificationCache;
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails, UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
+        Object credentials = authentication.getCredentials();
+        if(credentials != null && userDetails.getPassword() != null
+                && credentialVerificationCache.isVerified(userDetails.getUsername(), credentials.toString(), userDetails.getPassword()))
+        {
+            return;
+        }
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        credentialVerificationCache.put(userDetails.getUsername(), credentials.toString(), userDetails.getPassword());
+    }
+}
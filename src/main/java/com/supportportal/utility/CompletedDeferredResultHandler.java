@@ -0,0 +1,81 @@
+package com.supportportal.utility;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.lang.reflect.Type;
+
+//a DeferredResult that already holds its result when the handler returns is written right away, as if the handler
+//had returned the result itself. BlockingRequestExecutor hands out such results outside async mode, spring would
+//otherwise start async processing and dispatch the request a second time only to write them
+public class CompletedDeferredResultHandler implements HandlerMethodReturnValueHandler {
+
+    private HandlerMethodReturnValueHandler returnValueHandlers;
+
+    public CompletedDeferredResultHandler(HandlerMethodReturnValueHandler returnValueHandlers) {
+        this.returnValueHandlers = returnValueHandlers;
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return DeferredResult.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest) throws Exception {
+        DeferredResult<?> deferredResult = (DeferredResult<?>) returnValue;
+        if(deferredResult == null || !deferredResult.hasResult())
+        {
+            returnValueHandlers.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+            return;
+        }
+        Object result = deferredResult.getResult();
+        //goes to the exception handlers like an exception thrown by the handler
+        if(result instanceof Exception)
+        {
+            throw (Exception) result;
+        }
+        returnValueHandlers.handleReturnValue(result, new ResultType(returnType), mavContainer, webRequest);
+    }
+
+    //the handler's return type with the DeferredResult taken off, so the result is written like a ResponseEntity
+    //the handler returned
+    private static class ResultType extends MethodParameter {
+
+        private Class<?> resultClass;
+        private Type resultType;
+
+        ResultType(MethodParameter returnType) {
+            super(returnType);
+            ResolvableType type = ResolvableType.forMethodParameter(returnType).getGeneric();
+            this.resultClass = type.resolve(Object.class);
+            this.resultType = type.getType();
+        }
+
+        private ResultType(ResultType original) {
+            super(original);
+            this.resultClass = original.resultClass;
+            this.resultType = original.resultType;
+        }
+
+        @Override
+        public Class<?> getParameterType() {
+            return resultClass;
+        }
+
+        @Override
+        public Type getGenericParameterType() {
+            return resultType;
+        }
+
+        @Override
+        public ResultType clone() {
+            return new ResultType(this);
+        }
+    }
+}
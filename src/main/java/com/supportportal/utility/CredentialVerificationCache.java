@@ -0,0 +1,111 @@
+package com.supportportal.utility;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.supportportal.constant.SecurityConstant.CREDENTIAL_CACHE_MAXIMUM_SIZE;
+
+//passwords that recently passed the bcrypt check, so a client logging in again and again is verified with an
+//hmac instead of a full bcrypt compare. only an hmac of the password is kept, under a key drawn at startup that
+//never leaves this node. an entry also holds the stored bcrypt hash it was verified against and only matches
+//while the user still has that hash, so a password changed on any node misses here. UserServiceImpl drops the
+//entry of a user whose password or lock state it changes
+@Component
+public class CredentialVerificationCache {
+
+    private final Cache<String, VerifiedCredential> verifiedCredentials;
+    private final HashFunction hmac;
+    private final boolean enabled;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public CredentialVerificationCache(@Value("${security.credential-cache.enabled}") boolean enabled,
+                                       @Value("${security.credential-cache.expiration}") long expirationMillis)
+    {
+        this.enabled = enabled;
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.hmac = Hashing.hmacSha256(key);
+        this.verifiedCredentials = CacheBuilder.newBuilder()
+                .maximumSize(CREDENTIAL_CACHE_MAXIMUM_SIZE)
+                .expireAfterWrite(expirationMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    public boolean isVerified(String userName, String password, String encodedPassword)
+    {
+        if(!enabled)
+        {
+            return false;
+        }
+        VerifiedCredential credential = verifiedCredentials.getIfPresent(userName);
+        if(credential != null && credential.encodedPassword.equals(encodedPassword)
+                && MessageDigest.isEqual(credential.passwordHmac, hmac(userName, password)))
+        {
+            hitCount.increment();
+            return true;
+        }
+        missCount.increment();
+        return false;
+    }
+
+    public void put(String userName, String password, String encodedPassword)
+    {
+        if(enabled)
+        {
+            verifiedCredentials.put(userName, new VerifiedCredential(hmac(userName, password), encodedPassword));
+        }
+    }
+
+    public void invalidate(String userName)
+    {
+        if(userName != null)
+        {
+            verifiedCredentials.invalidate(userName);
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public double getHitRate() {
+        long hits = hitCount.sum();
+        long requests = hits + missCount.sum();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    public long getSize() {
+        return verifiedCredentials.size();
+    }
+
+    private byte[] hmac(String userName, String password) {
+        //the user name is part of the input so equal passwords of two users give different values
+        return hmac.newHasher().putString(userName, StandardCharsets.UTF_8).putByte((byte) 0)
+                .putString(password, StandardCharsets.UTF_8).hash().asBytes();
+    }
+
+    private static class VerifiedCredential {
+        private final byte[] passwordHmac;
+        private final String encodedPassword;
+
+        private VerifiedCredential(byte[] passwordHmac, String encodedPassword) {
+            this.passwordHmac = passwordHmac;
+            this.encodedPassword = encodedPassword;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.supportportal.utility;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+import static com.supportportal.constant.FileConstant.IMAGE_SERVED_BYTES_METRIC;
+import static com.supportportal.constant.FileConstant.IMAGE_SOURCE_TAG;
+
+//writes a file straight from disk to the response. tomcat sends it with sendfile when the connector supports it,
+//otherwise it goes through FileChannel.transferTo, either way the file is never read onto the heap. answers
+//conditional GETs with 304 and a single byte range with 206
+@Component
+public class FileResponseWriter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String BYTES = "bytes";
+
+    private Counter servedBytes;
+
+    @Autowired
+    public FileResponseWriter(MeterRegistry meterRegistry) {
+        this.servedBytes = meterRegistry.counter(IMAGE_SERVED_BYTES_METRIC, IMAGE_SOURCE_TAG, "file");
+    }
+
+    public void write(Path file, String contentType, CacheControl cacheControl, HttpServletRequest request, HttpServletResponse response) throws IOException
+    {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if(!attributes.isRegularFile())
+        {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String eTag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES);
+        //sets the ETag and Last-Modified headers, and the 304 when the client copy is still current
+        if(new ServletWebRequest(request, response).checkNotModified(eTag, lastModified))
+        {
+            return;
+        }
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if(range != null && isCurrent(request.getHeader(HttpHeaders.IF_RANGE), eTag, lastModified))
+        {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                //several ranges would need a multipart body, the whole file is a valid answer to those
+                if(ranges.size() == 1)
+                {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                }
+            } catch (IllegalArgumentException e) {
+                start = length;
+            }
+            if(start >= length || start > end)
+            {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES + " */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if(start > 0 || end < length - 1)
+            {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES + " " + start + "-" + end + "/" + length);
+            }
+        }
+        long count = end - start + 1;
+        response.setContentType(contentType);
+        response.setContentLengthLong(count);
+        if(HttpMethod.HEAD.matches(request.getMethod()) || count == 0)
+        {
+            return;
+        }
+        servedBytes.increment(count);
+        if(Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)))
+        {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, target);
+            }
+        }
+    }
+
+    //a Range is only honoured when the If-Range validator still matches, otherwise the whole file is sent
+    private boolean isCurrent(String ifRange, String eTag, long lastModified) {
+        if(ifRange == null)
+        {
+            return true;
+        }
+        if(ifRange.startsWith("\""))
+        {
+            return ifRange.equals(eTag);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.IF_RANGE, ifRange);
+        try {
+            return lastModified / 1000 == headers.getFirstDate(HttpHeaders.IF_RANGE) / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
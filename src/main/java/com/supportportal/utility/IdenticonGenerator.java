@@ -0,0 +1,53 @@
+package com.supportportal.utility;
+
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static com.supportportal.constant.FileConstant.*;
+
+//renders a 5x5 mirrored block pattern from a hash, the same hash always gives the same png
+@Component
+public class IdenticonGenerator {
+
+    private static final int GRID = 5;
+    private static final Color BACKGROUND = new Color(240, 240, 240);
+
+    public byte[] generate(byte[] hash)
+    {
+        int cell = (AVATAR_SIZE - 2 * AVATAR_MARGIN) / GRID;
+        BufferedImage image = new BufferedImage(AVATAR_SIZE, AVATAR_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(BACKGROUND);
+            graphics.fillRect(0, 0, AVATAR_SIZE, AVATAR_SIZE);
+            graphics.setColor(Color.getHSBColor((hash[0] & 0xff) / 255f, 0.45f + (hash[1] & 0x3f) / 255f, 0.75f));
+            //only the left three columns come from the hash, the right two mirror them
+            for (int column = 0; column < (GRID + 1) / 2; column++) {
+                for (int row = 0; row < GRID; row++) {
+                    int bit = column * GRID + row;
+                    if((hash[2 + bit / 8] >> (bit % 8) & 1) == 1)
+                    {
+                        graphics.fillRect(AVATAR_MARGIN + column * cell, AVATAR_MARGIN + row * cell, cell, cell);
+                        graphics.fillRect(AVATAR_MARGIN + (GRID - 1 - column) * cell, AVATAR_MARGIN + row * cell, cell, cell);
+                    }
+                }
+            }
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, PNG_EXTENSION, png);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return png.toByteArray();
+    }
+}
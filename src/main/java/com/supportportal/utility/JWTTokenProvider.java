@@ -4,38 +4,46 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
-import com.supportportal.constant.SecurityConstant;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.supportportal.domain.UserPrincipal;
+import com.supportportal.domain.VerifiedToken;
+import com.supportportal.enumeration.Role;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static com.supportportal.constant.SecurityConstant.*;
 
 @Component
 public class JWTTokenProvider {
+
+    private final Algorithm algorithm;
+    //verifier is immutable and thread safe, so it is built once instead of per call
+    private final JWTVerifier jwtVerifier;
+
     //usually you will store in secure server and have it in a property file
-    @Value("${jwt.secret}")
-    private String secret ="";
+    public JWTTokenProvider(@Value("${jwt.secret}") String secret)
+    {
+        this.algorithm = Algorithm.HMAC512(secret);
+        this.jwtVerifier = getJWTVerifier(algorithm);
+    }
 
     //how to generate jwt token
-    // generateClaimsFromUser -> getAuthorities -> getClaimsFromToken -> getJWTVerifier ->
+    //the authorities claim holds the authorities of the role of the user
     public String generateJWTToken(UserPrincipal userPrincipal)
     {
-        String[] claims =  generateClaimsFromUser(userPrincipal);
+        String[] claims =  userPrincipal.getUser().getAuthorities();
         return JWT.create()
                 .withIssuer(GET_ARRAYS_LLC)
                 .withAudience(GET_ARRAYS_ADMINISTRATION)
@@ -43,14 +51,19 @@ public class JWTTokenProvider {
                 .withSubject(userPrincipal.getUsername())// user id
                 .withArrayClaim(AUTHORITIES, claims)
                 .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .sign(Algorithm.HMAC512(secret.getBytes()));
+                .sign(algorithm);
+    }
+
+    //verifies signature, issuer and expiry once and extracts subject, authorities and expiry from the same decode
+    public VerifiedToken verifyToken(String token)
+    {
+        DecodedJWT decodedJWT = jwtVerifier.verify(token);
+        return new VerifiedToken(decodedJWT.getSubject(), getAuthorities(decodedJWT), decodedJWT.getExpiresAt());
     }
 
     public List<GrantedAuthority> getAuthorities(String token)
     {
-        String[] claims =  getClaimsFromToken(token);
-        return Arrays.stream(claims).map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+        return getAuthorities(jwtVerifier.verify(token));
     }
 
     public Authentication getAuthentication(String userName, List<GrantedAuthority> authorities, HttpServletRequest httpServletRequest)
@@ -63,50 +76,44 @@ public class JWTTokenProvider {
         return usernamePasswordAuthenticationToken;
     }
 
+    public boolean isTokenValid(VerifiedToken verifiedToken)
+    {
+        return StringUtils.isNotEmpty(verifiedToken.getSubject()) && !isTokenExpired(verifiedToken.getExpiresAt());
+    }
+
     public boolean isTokenValid(String userName, String token)
     {
-        JWTVerifier verifier =  getJWTVerifier();
-        return StringUtils.isNotEmpty(userName) && !isTokenExpired(verifier,token);
+        return StringUtils.isNotEmpty(userName) && !isTokenExpired(jwtVerifier.verify(token).getExpiresAt());
     }
 
     public String getSubject(String token){
-        JWTVerifier verifier =  getJWTVerifier();
-        return verifier.verify(token).getSubject();
+        return jwtVerifier.verify(token).getSubject();
     }
 
-    private boolean isTokenExpired(JWTVerifier verifier, String token) {
-        Date expiration = verifier.verify(token).getExpiresAt();
+    private boolean isTokenExpired(Date expiration) {
         return expiration.before(new Date());
     }
 
-    private String[] getClaimsFromToken(String token) {
-        JWTVerifier jwtVerifier=getJWTVerifier();
-        return jwtVerifier.verify(token).getClaim(AUTHORITIES).asArray(String.class);
+    private List<GrantedAuthority> getAuthorities(DecodedJWT decodedJWT) {
+        String[] claims = decodedJWT.getClaim(AUTHORITIES).asArray(String.class);
+        if(claims==null)
+        {
+            return Collections.emptyList();
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>(claims.length);
+        for (String claim : claims) {
+            authorities.add(Role.getGrantedAuthority(claim));
+        }
+        return Collections.unmodifiableList(authorities);
     }
 
-    private JWTVerifier getJWTVerifier() {
+    private JWTVerifier getJWTVerifier(Algorithm algorithm) {
         JWTVerifier jwtVerifier;
         try {
-            Algorithm algorithm = Algorithm.HMAC512(secret);
             jwtVerifier=JWT.require(algorithm).withIssuer(GET_ARRAYS_LLC).build();
         }catch (JWTVerificationException jwtVerificationException){
             throw new JWTVerificationException(TOKEN_CANNOT_BE_VERIFIED);
         }
         return jwtVerifier;
     }
-
-    private  String[] generateClaimsFromUser(UserPrincipal userPrincipal)
-    {
-        List<String> authorities = new ArrayList<>();
-        List<Boolean> listOfAuthorities = userPrincipal.getAuthorities().stream()
-                .map(grantedAuthority -> authorities.add(grantedAuthority.getAuthority()))
-                .collect(Collectors.toList());
-        return authorities.toArray(new String[0]);
-
-//        List<String> authorities = new ArrayList<>();
-//        for (GrantedAuthority grantedAuthority : userPrincipal.getAuthorities()){
-//            authorities.add(grantedAuthority.getAuthority());
-//        }
-//        return authorities.toArray(new String[0]);
-    }
 }
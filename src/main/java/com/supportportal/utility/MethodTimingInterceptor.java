@@ -0,0 +1,71 @@
+package com.supportportal.utility;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+//times every call of the advised beans, one timer per method tagged with the interface of the given type the bean
+//implements (UserService, UserRepository). the timers are registered by the first call of a method, later calls
+//only look them up and add to them
+public class MethodTimingInterceptor implements MethodInterceptor {
+
+    private final Map<Class<?>, Map<Method, Timer>> timers = new ConcurrentHashMap<>();
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final String name;
+    private final Class<?> type;
+
+    //the registry is looked up on first use, advisors are created before the beans that build it
+    public MethodTimingInterceptor(ObjectProvider<MeterRegistry> meterRegistry, String name, Class<?> type) {
+        this.meterRegistry = meterRegistry;
+        this.name = name;
+        this.type = type;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Timer timer = getTimer(invocation.getThis().getClass(), invocation.getMethod());
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer getTimer(Class<?> targetClass, Method method) {
+        Map<Method, Timer> classTimers = timers.get(targetClass);
+        if(classTimers == null)
+        {
+            classTimers = timers.computeIfAbsent(targetClass, key -> new ConcurrentHashMap<>());
+        }
+        Timer timer = classTimers.get(method);
+        if(timer == null)
+        {
+            String typeName = getTypeName(targetClass);
+            timer = classTimers.computeIfAbsent(method, key -> Timer.builder(name)
+                    .tag("type", typeName)
+                    .tag("method", key.getName())
+                    .register(meterRegistry.getObject()));
+        }
+        return timer;
+    }
+
+    //the first interface of the bean that is a kind of the advised type, repository proxies implement theirs first
+    private String getTypeName(Class<?> targetClass) {
+        for (Class<?> candidate : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+            if(type.isAssignableFrom(candidate))
+            {
+                return candidate.getSimpleName();
+            }
+        }
+        return ClassUtils.getUserClass(targetClass).getSimpleName();
+    }
+}
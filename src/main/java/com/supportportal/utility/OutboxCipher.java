@@ -0,0 +1,70 @@
+package com.supportportal.utility;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+//encrypts the email bodies waiting in the outbox, they hold generated passwords until they are sent. every node
+//dispatching the outbox needs the same email.outbox-key, without one each process makes up its own and what it
+//queued can only be sent by itself, before it restarts
+@Component
+public class OutboxCipher {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private final SecureRandom random = new SecureRandom();
+    private SecretKey key;
+
+    @Autowired
+    public OutboxCipher(@Value("${email.outbox-key:}") String key) throws GeneralSecurityException {
+        if(key.isEmpty())
+        {
+            LOGGER.warn("No email.outbox-key set, queued emails can only be sent by this process");
+            KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+            keyGenerator.init(256, random);
+            this.key = keyGenerator.generateKey();
+        }
+        else
+        {
+            this.key = new SecretKeySpec(Base64.getDecoder().decode(key), "AES");
+        }
+    }
+
+    public String encrypt(String text) {
+        try {
+            byte[] iv = new byte[IV_BYTES];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] encrypted = cipher.doFinal(text.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + encrypted.length).put(iv).put(encrypted).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt email body", e);
+        }
+    }
+
+    //fails when the text was encrypted with another key or changed since
+    public String decrypt(String encrypted) throws GeneralSecurityException {
+        byte[] bytes = Base64.getDecoder().decode(encrypted);
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, bytes, 0, IV_BYTES));
+        return new String(cipher.doFinal(bytes, IV_BYTES, bytes.length - IV_BYTES), StandardCharsets.UTF_8);
+    }
+}
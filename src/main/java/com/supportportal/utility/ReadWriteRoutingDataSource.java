@@ -0,0 +1,55 @@
+package com.supportportal.utility;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+//read only transactions go to the replica, everything else to the primary. without a replica everything goes to
+//the primary. has to sit behind a LazyConnectionDataSourceProxy, the transaction is only marked read only after
+//it has asked for its connection
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private ReadYourWritesTracker readYourWritesTracker;
+    private boolean hasReplica;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadYourWritesTracker readYourWritesTracker) {
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.hasReplica = replica != null;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.put(REPLICA, hasReplica ? replica : primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if(!hasReplica)
+        {
+            return PRIMARY;
+        }
+        if(TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+        {
+            return readYourWritesTracker.mustReadPrimary() ? PRIMARY : REPLICA;
+        }
+        if(TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            String writer = readYourWritesTracker.getCurrentWriter();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readYourWritesTracker.recordWrite(writer);
+                }
+            });
+        }
+        return PRIMARY;
+    }
+}
@@ -0,0 +1,80 @@
+package com.supportportal.utility;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.supportportal.constant.UserImplementationConstant.READ_YOUR_WRITES_MAXIMUM_SIZE;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+//remembers who wrote to the primary within the last max-lag milliseconds. their read only transactions stay on
+//the primary until the replica has had time to catch up, so a user sees their own changes right away. everyone
+//else reads the replica and sees the change once it has been replicated
+@Component
+public class ReadYourWritesTracker {
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+
+    private long maxLagMillis;
+    private Cache<String, Boolean> recentWriters;
+
+    @Autowired
+    public ReadYourWritesTracker(@Value("${spring.datasource.replica.url:}") String replicaUrl,
+                                 @Value("${spring.datasource.replica.max-lag:1000}") long maxLagMillis) {
+        //without a replica every read is on the primary and there is no lag to wait out
+        this.maxLagMillis = isBlank(replicaUrl) ? 0 : maxLagMillis;
+        this.recentWriters = CacheBuilder.newBuilder()
+                .maximumSize(READ_YOUR_WRITES_MAXIMUM_SIZE)
+                .expireAfterWrite(Math.max(1, this.maxLagMillis), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    //the routing key of a read only transaction
+    public boolean mustReadPrimary()
+    {
+        String writer = getCurrentWriter();
+        boolean primary = writer != null && recentWriters.getIfPresent(writer) != null;
+        (primary ? primaryReads : replicaReads).increment();
+        return primary;
+    }
+
+    public void recordWrite(String writer)
+    {
+        writes.increment();
+        if(writer != null && maxLagMillis > 0)
+        {
+            recentWriters.put(writer, Boolean.TRUE);
+        }
+    }
+
+    public String getCurrentWriter()
+    {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+
+    public long getPrimaryReads() {
+        return primaryReads.sum();
+    }
+
+    public long getWrites() {
+        return writes.sum();
+    }
+}
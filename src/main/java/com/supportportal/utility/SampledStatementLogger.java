@@ -0,0 +1,46 @@
+package com.supportportal.utility;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+//logs about one in sql-log.sample-rate of the statements hibernate prepares, at debug, in place of show-sql
+//which printed every statement to stdout on the request thread. with the default of 0 it is not installed at all
+@Component
+public class SampledStatementLogger implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private int sampleRate;
+
+    @Autowired
+    public SampledStatementLogger(@Value("${sql-log.sample-rate:0}") int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        //an inspector set in spring.jpa.properties is kept
+        if(sampleRate > 0)
+        {
+            hibernateProperties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, this);
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if(LOGGER.isDebugEnabled() && ThreadLocalRandom.current().nextInt(sampleRate) == 0)
+        {
+            LOGGER.debug("{}", sql);
+        }
+        return sql;
+    }
+}
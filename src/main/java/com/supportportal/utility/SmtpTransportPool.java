@@ -0,0 +1,103 @@
+package com.supportportal.utility;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static com.supportportal.constant.EmailConstant.*;
+
+//connected smtp transports kept open between sends instead of one connect and close per email
+@Component
+public class SmtpTransportPool {
+
+    private final Session session;
+    private final BlockingQueue<Transport> idleTransports;
+    private final String protocol;
+    private final String host;
+    private final int port;
+    private final String userName;
+    private final String password;
+
+    public SmtpTransportPool(@Value("${email.smtp.protocol:" + SIMPLE_MAIL_TRANSFER_PROTOCOL + "}") String protocol,
+                             @Value("${email.smtp.host:" + GMAIL_SMTP_SERVER + "}") String host,
+                             @Value("${email.smtp.port:" + DEFAULT_PORT + "}") int port,
+                             @Value("${email.smtp.username:" + USERNAME + "}") String userName,
+                             @Value("${email.smtp.password:" + PASSWORD + "}") String password,
+                             @Value("${email.smtp.auth:true}") boolean auth,
+                             @Value("${email.smtp.starttls:true}") boolean startTls,
+                             @Value("${email.connections}") int connections) {
+        this.protocol = protocol;
+        this.host = host;
+        this.port = port;
+        this.userName = userName;
+        this.password = password;
+        this.idleTransports = new ArrayBlockingQueue<>(connections);
+        Properties properties = new Properties();
+        properties.put(SMTP_HOST, host);
+        properties.put(SMTP_AUTH, auth);
+        properties.put(SMTP_PORT, port);
+        properties.put(SMTP_STARTTLS_ENABLE, startTls);
+        properties.put(SMTP_STARTTLS_REQUIRED, startTls);
+        //a hung smtp server must not hold a sending thread forever
+        properties.put("mail." + protocol + SMTP_CONNECTION_TIMEOUT, SMTP_TIMEOUT_MILLIS);
+        properties.put("mail." + protocol + SMTP_TIMEOUT, SMTP_TIMEOUT_MILLIS);
+        this.session = Session.getInstance(properties, null);
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public Transport borrow() throws MessagingException
+    {
+        Transport transport;
+        while ((transport = idleTransports.poll()) != null) {
+            if(transport.isConnected())
+            {
+                return transport;
+            }
+            close(transport);
+        }
+        transport = session.getTransport(protocol);
+        transport.connect(host, port, userName, password);
+        return transport;
+    }
+
+    public void release(Transport transport)
+    {
+        if(!transport.isConnected() || !idleTransports.offer(transport))
+        {
+            close(transport);
+        }
+    }
+
+    //for a transport that failed mid send, its connection state is unknown
+    public void invalidate(Transport transport)
+    {
+        close(transport);
+    }
+
+    @PreDestroy
+    public void closeAll()
+    {
+        Transport transport;
+        while ((transport = idleTransports.poll()) != null) {
+            close(transport);
+        }
+    }
+
+    private void close(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            //already closed or broken, nothing left to release
+        }
+    }
+}
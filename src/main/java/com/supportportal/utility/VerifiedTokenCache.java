@@ -0,0 +1,91 @@
+package com.supportportal.utility;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.supportportal.domain.VerifiedToken;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.supportportal.constant.SecurityConstant.TOKEN_CACHE_EXPIRATION_MINUTES;
+import static com.supportportal.constant.SecurityConstant.TOKEN_CACHE_MAXIMUM_SIZE;
+
+//tokens that already passed verification, keyed by a sha-256 digest of the whole token (signature included)
+//so a forged or modified token never maps to a cached entry and the raw token is never kept in memory
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, VerifiedToken> verifiedTokenCache;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public VerifiedTokenCache()
+    {
+        this(TOKEN_CACHE_MAXIMUM_SIZE, TOKEN_CACHE_EXPIRATION_MINUTES, TimeUnit.MINUTES);
+    }
+
+    public VerifiedTokenCache(long maximumSize, long expiration, TimeUnit timeUnit)
+    {
+        verifiedTokenCache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expiration, timeUnit)
+                .<String, VerifiedToken>removalListener(notification -> {
+                    if(notification.wasEvicted())
+                    {
+                        evictionCount.increment();
+                    }
+                })
+                .build();
+    }
+
+    public VerifiedToken getIfPresent(String token)
+    {
+        String key = digest(token);
+        VerifiedToken verifiedToken = verifiedTokenCache.getIfPresent(key);
+        //the entry can outlive the exp claim of its token, so check it on every hit
+        if(verifiedToken!=null && verifiedToken.getExpiresAt().after(new Date()))
+        {
+            hitCount.increment();
+            return verifiedToken;
+        }
+        if(verifiedToken!=null)
+        {
+            verifiedTokenCache.invalidate(key);
+        }
+        missCount.increment();
+        return null;
+    }
+
+    public void put(String token, VerifiedToken verifiedToken)
+    {
+        if(verifiedToken.getExpiresAt()!=null)
+        {
+            verifiedTokenCache.put(digest(token), verifiedToken);
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long getSize() {
+        return verifiedTokenCache.size();
+    }
+
+    private String digest(String token) {
+        return Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+    }
+}
@@ -0,0 +1,21 @@
+package com.supportportal.utility;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//virtual threads exist from java 21 on while the project still builds for java 8, so the executor is looked up
+//at runtime. null on older runtimes
+public class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static ExecutorService newVirtualThreadPerTaskExecutor()
+    {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
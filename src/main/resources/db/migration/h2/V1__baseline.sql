@@ -0,0 +1,3 @@
+-- the embedded database follows the same versions as the mysql one
+create sequence hibernate_sequence start with 1 increment by 1;
+create table user (id bigint not null, authorities binary(255), email varchar(255), first_name varchar(255), is_active boolean not null, is_not_locked boolean not null, join_date timestamp, last_login_date timestamp, last_login_date_display timestamp, last_name varchar(255), password varchar(255), profile_image_url varchar(255), role varchar(255), user_id varchar(255), user_name varchar(255), primary key (id));
@@ -0,0 +1,10 @@
+create table email_outbox (id bigint not null, attempts integer not null, body varchar(2000), cc varchar(255), created_at timestamp, last_error varchar(255), next_attempt_at timestamp, recipient varchar(255), sent_at timestamp, status varchar(255), subject varchar(255), primary key (id));
+create table login_attempt_counter (user_name varchar(255) not null, attempts integer not null, window_start bigint not null, primary key (user_name));
+create table stored_image (hash varchar(64) not null, reference_count integer not null, unreferenced_since timestamp, primary key (hash));
+alter table user add column profile_image_hash varchar(255);
+create index idx_user_first_name on user (first_name);
+create index idx_user_last_name on user (last_name);
+
+-- users created before user_sequence existed got their ids from hibernate_sequence, new ones continue after them
+create sequence user_sequence start with 1 increment by 50;
+alter sequence user_sequence restart with (select coalesce(max(id), 0) + 1 from user);
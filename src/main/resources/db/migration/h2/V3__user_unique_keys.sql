@@ -0,0 +1,3 @@
+create unique index uk_user_user_name on user (user_name);
+create unique index uk_user_email on user (email);
+create unique index uk_user_user_id on user (user_id);
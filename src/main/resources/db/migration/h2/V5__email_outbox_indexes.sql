@@ -0,0 +1,3 @@
+-- the dispatcher claims and counts by status and next attempt, the purge deletes by status and send time
+create index idx_email_outbox_status_next_attempt on email_outbox (status, next_attempt_at);
+create index idx_email_outbox_status_sent_at on email_outbox (status, sent_at);
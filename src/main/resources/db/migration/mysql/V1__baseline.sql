@@ -0,0 +1,5 @@
+-- the schema as ddl-auto: update created it before the migrations. databases created that way are baselined at
+-- this version and start with V2
+create table hibernate_sequence (next_val bigint) engine=InnoDB;
+insert into hibernate_sequence values (1);
+create table user (id bigint not null, authorities tinyblob, email varchar(255), first_name varchar(255), is_active bit not null, is_not_locked bit not null, join_date datetime(6), last_login_date datetime(6), last_login_date_display datetime(6), last_name varchar(255), password varchar(255), profile_image_url varchar(255), role varchar(255), user_id varchar(255), user_name varchar(255), primary key (id)) engine=InnoDB;
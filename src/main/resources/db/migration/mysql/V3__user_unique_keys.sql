@@ -0,0 +1,5 @@
+-- userName, email and userId are unique. duplicates already in the table make this fail and have to be resolved
+-- by hand before migrating
+create unique index uk_user_user_name on user (user_name);
+create unique index uk_user_email on user (email);
+create unique index uk_user_user_id on user (user_id);
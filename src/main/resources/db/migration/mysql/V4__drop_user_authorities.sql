@@ -0,0 +1,2 @@
+-- authorities are derived from the role, the serialized copy per user is no longer read
+alter table user drop column authorities;
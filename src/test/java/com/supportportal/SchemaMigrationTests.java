@@ -0,0 +1,84 @@
+package com.supportportal;
+
+import com.supportportal.domain.User;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//databases created by ddl-auto: update before the migrations existed hold only the user table and
+//hibernate_sequence. they are baselined at V1 and brought up to date by the later migrations
+class SchemaMigrationTests {
+
+	private static final String MYSQL_BASELINE = "create table hibernate_sequence (next_val bigint) engine=InnoDB;" +
+			"insert into hibernate_sequence values (3);" +
+			"create table user (id bigint not null, authorities tinyblob, email varchar(255), first_name varchar(255), " +
+			"is_active bit not null, is_not_locked bit not null, join_date datetime(6), last_login_date datetime(6), " +
+			"last_login_date_display datetime(6), last_name varchar(255), password varchar(255), profile_image_url varchar(255), " +
+			"role varchar(255), user_id varchar(255), user_name varchar(255), primary key (id)) engine=InnoDB;";
+	private static final String H2_BASELINE = "create sequence hibernate_sequence start with 3 increment by 1;" +
+			"create table user (id bigint not null, authorities binary(255), email varchar(255), first_name varchar(255), " +
+			"is_active boolean not null, is_not_locked boolean not null, join_date timestamp, last_login_date timestamp, " +
+			"last_login_date_display timestamp, last_name varchar(255), password varchar(255), profile_image_url varchar(255), " +
+			"role varchar(255), user_id varchar(255), user_name varchar(255), primary key (id));";
+
+	@Test
+	void mysqlMigrationsUpgradeABaselineDatabase() {
+		DataSource dataSource = createBaseline("jdbc:h2:mem:supportportal-mysql-baseline;DB_CLOSE_DELAY=-1;MODE=MySQL", MYSQL_BASELINE);
+		Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/mysql").baselineOnMigrate(true).load().migrate();
+
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		assertEquals(3L, jdbcTemplate.queryForObject("select next_val from user_sequence", Long.class));
+		assertEquals(0, jdbcTemplate.queryForObject("select count(*) from email_outbox", Integer.class));
+		assertEquals(0, jdbcTemplate.queryForObject("select count(*) from login_attempt_counter", Integer.class));
+		assertEquals(0, jdbcTemplate.queryForObject("select count(*) from stored_image", Integer.class));
+		assertNull(jdbcTemplate.queryForObject("select profile_image_hash from user where id = 1", String.class));
+		assertEquals(0, jdbcTemplate.queryForObject("select count(*) from information_schema.columns " +
+				"where table_name = 'USER' and column_name = 'AUTHORITIES'", Integer.class));
+		assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update("insert into user (id, user_name, " +
+				"is_active, is_not_locked) values (3, 'first', true, true)"));
+	}
+
+	@Test
+	void applicationStartsOnAMigratedBaselineDatabase() {
+		String url = "jdbc:h2:mem:supportportal-h2-baseline;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=MySQL";
+		createBaseline(url, H2_BASELINE);
+		//ddl-auto: validate fails the startup if the migrated schema does not match the entities
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SupportportalApplication.class)
+				.web(WebApplicationType.NONE)
+				.profiles("test")
+				.run("--spring.datasource.url=" + url)) {
+			UserRepository userRepository = context.getBean(UserRepository.class);
+			assertEquals("first@mail.com", userRepository.findUserByUserName("first").getEmail());
+			User user = userRepository.save(User.builder().userId("third").userName("third").email("third@mail.com")
+					.role(Role.ROLE_USER.name()).isActive(true).isNotLocked(true).build());
+			assertTrue(user.getId() > 2);
+		}
+	}
+
+	private DataSource createBaseline(String url, String schema) {
+		DataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		for (String statement : schema.split(";")) {
+			jdbcTemplate.execute(statement);
+		}
+		jdbcTemplate.update("insert into user (id, user_id, user_name, email, role, is_active, is_not_locked) " +
+				"values (1, 'first', 'first', 'first@mail.com', 'ROLE_USER', true, true)");
+		jdbcTemplate.update("insert into user (id, user_id, user_name, email, role, is_active, is_not_locked) " +
+				"values (2, 'second', 'second', 'second@mail.com', 'ROLE_USER', true, true)");
+		return dataSource;
+	}
+}
@@ -0,0 +1,59 @@
+package com.supportportal.resource;
+
+import com.supportportal.domain.User;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import com.supportportal.utility.BlockingRequestExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//in async mode the database reads run on the BlockingRequestExecutor pool, not on the request thread
+@SpringBootTest(properties = "web.execution-mode=async")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class AsyncExecutionTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private BlockingRequestExecutor blockingRequestExecutor;
+
+	@BeforeEach
+	void setUp() {
+		userRepository.deleteAll();
+		userRepository.save(User.builder().userId("async").userName("async").email("async@mail.com")
+				.role(Role.ROLE_USER.name()).isActive(true).isNotLocked(true).build());
+	}
+
+	@Test
+	void readsRunOnTheBlockingRequestPool() throws Exception {
+		assertTrue(blockingRequestExecutor.isAsync());
+		long completed = blockingRequestExecutor.getCompletedCount();
+		MvcResult result = mockMvc.perform(get("/user/find/async")).andExpect(request().asyncStarted()).andReturn();
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andExpect(jsonPath("$.userName").value("async"));
+		//the pool counts a task once it has returned, shortly after its result was handed over
+		long deadline = System.currentTimeMillis() + 5000;
+		while (blockingRequestExecutor.getCompletedCount() == completed && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(completed + 1, blockingRequestExecutor.getCompletedCount());
+	}
+}
@@ -0,0 +1,76 @@
+package com.supportportal.resource;
+
+import com.supportportal.domain.User;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import com.supportportal.service.LastLoginRecorder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+
+import static com.supportportal.constant.SecurityConstant.JWT_TOKEN_HEADER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//before: every login ran select + full update of the user row + a second select (3 statements)
+//after: one select per login, and one targeted update per user per flush
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoginStatementCountTests {
+
+	private static final int USERS = 20;
+	private static final int LOGINS_PER_USER = 3;
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private BCryptPasswordEncoder bCryptPasswordEncoder;
+	@Autowired
+	private LastLoginRecorder lastLoginRecorder;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void loginOnlyReadsTheUserRow() throws Exception {
+		String password = bCryptPasswordEncoder.encode("password");
+		for (int i = 0; i < USERS; i++) {
+			userRepository.save(User.builder().userId("id" + i).userName("login" + i).email("login" + i + "@mail.com")
+					.password(password).role(Role.ROLE_USER.name())
+					.isActive(true).isNotLocked(true).build());
+		}
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		for (int login = 0; login < LOGINS_PER_USER; login++) {
+			for (int i = 0; i < USERS; i++) {
+				mockMvc.perform(post("/user/login").contentType(APPLICATION_JSON)
+						.content("{\"userName\":\"login" + i + "\",\"password\":\"password\"}"))
+						.andExpect(status().isOk())
+						.andExpect(header().exists(JWT_TOKEN_HEADER));
+			}
+		}
+		int logins = USERS * LOGINS_PER_USER;
+		assertEquals(logins, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityUpdateCount());
+
+		lastLoginRecorder.flush();
+		assertEquals(logins + USERS, statistics.getPrepareStatementCount());
+		assertEquals(0, lastLoginRecorder.getPendingCount());
+		assertNotNull(userRepository.findUserByUserName("login0").getLastLoginDate());
+	}
+}
@@ -0,0 +1,114 @@
+package com.supportportal.resource;
+
+import com.supportportal.domain.User;
+import com.supportportal.domain.UserPrincipal;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import com.supportportal.service.LastLoginRecorder;
+import com.supportportal.utility.JWTTokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static com.supportportal.constant.SecurityConstant.TOKEN_PREFIX;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MetricsTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private BCryptPasswordEncoder bCryptPasswordEncoder;
+	@Autowired
+	private JWTTokenProvider jwtTokenProvider;
+	@Autowired
+	private LastLoginRecorder lastLoginRecorder;
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void hotPathsAreScrapedWithoutLoggingIn() throws Exception {
+		User user = saveUser("metrics");
+		double succeeded = count("login.attempts", "success");
+		double badCredentials = count("login.attempts", "bad-credentials");
+		login("metrics", "password").andExpect(status().isOk());
+		login("metrics", "wrong").andExpect(status().isBadRequest());
+		assertEquals(succeeded + 1, count("login.attempts", "success"));
+		assertEquals(badCredentials + 1, count("login.attempts", "bad-credentials"));
+		//the context is shared, later tests count the statements of the next flush
+		lastLoginRecorder.flush();
+		String token = jwtTokenProvider.generateJWTToken(new UserPrincipal(user));
+		mockMvc.perform(get("/user/find/metrics").header(AUTHORIZATION, TOKEN_PREFIX + token)).andExpect(status().isOk());
+		mockMvc.perform(get("/user/image/profile/metrics")).andExpect(status().isOk());
+
+		String metrics = mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "scrape"))).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		assertTrue(metrics.contains("login_attempts_total{application=\"supportportal\",outcome=\"success\",}"));
+		assertTrue(metrics.contains("login_attempts_total{application=\"supportportal\",outcome=\"bad-credentials\",}"));
+		assertTrue(metrics.contains("jwt_verification_seconds_count{application=\"supportportal\",outcome=\"success\",}"));
+		assertTrue(metrics.contains("supportportal_service_seconds_count{application=\"supportportal\",method=\"findByUserName\",type=\"UserService\",}"));
+		assertTrue(metrics.contains("supportportal_repository_seconds_count{application=\"supportportal\",method=\"findUserByUserName\",type=\"UserRepository\",}"));
+		assertTrue(metrics.contains("image_served_bytes_total{application=\"supportportal\",source=\"avatar\",}"));
+		assertTrue(metrics.contains("email_queue{application=\"supportportal\",}"));
+		assertTrue(metrics.contains("cache_gets_total{application=\"supportportal\",cache=\"verified-tokens\",result=\"miss\",}"));
+	}
+
+	@Test
+	void onlyTheScrapeUserReadsTheMetrics() throws Exception {
+		User user = saveUser("scraper");
+		String token = jwtTokenProvider.generateJWTToken(new UserPrincipal(user));
+		mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/actuator/prometheus").header(AUTHORIZATION, TOKEN_PREFIX + token)).andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/actuator/prometheus").with(httpBasic("scraper", "password"))).andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "wrong"))).andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+	}
+
+	@Test
+	void onlyFailedLoginsLeadToALockout() throws Exception {
+		saveUser("lockout");
+		double lockouts = meterRegistry.counter("login.lockouts").count();
+		for (int i = 0; i < 6; i++) {
+			login("lockout", "password").andExpect(status().isOk());
+		}
+		for (int i = 0; i < 5; i++) {
+			login("lockout", "wrong").andExpect(status().isBadRequest());
+		}
+		login("lockout", "password").andExpect(status().isUnauthorized());
+		assertEquals(lockouts + 1, meterRegistry.counter("login.lockouts").count());
+		lastLoginRecorder.flush();
+	}
+
+	private User saveUser(String userName) {
+		return userRepository.save(User.builder().userId(userName).userName(userName).email(userName + "@mail.com")
+				.password(bCryptPasswordEncoder.encode("password")).role(Role.ROLE_USER.name())
+				.isActive(true).isNotLocked(true).build());
+	}
+
+	private ResultActions login(String userName, String password) throws Exception {
+		return mockMvc.perform(post("/user/login").contentType(APPLICATION_JSON)
+				.content("{\"userName\":\"" + userName + "\",\"password\":\"" + password + "\"}"));
+	}
+
+	private double count(String name, String outcome) {
+		return meterRegistry.counter(name, "outcome", outcome).count();
+	}
+}
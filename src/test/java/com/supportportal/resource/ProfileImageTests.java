@@ -0,0 +1,100 @@
+package com.supportportal.resource;
+
+import org.springframework.util.FileSystemUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static com.supportportal.constant.FileConstant.USER_FOLDER;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProfileImageTests {
+
+	private static final String USER_NAME = "profile-image-test";
+	private static final String IMAGE_URL = "/user/image/" + USER_NAME + "/" + USER_NAME + ".jpg";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	private byte[] image;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		image = new byte[100_000];
+		for (int i = 0; i < image.length; i++) {
+			image[i] = (byte) i;
+		}
+		Path userFolder = Files.createDirectories(Paths.get(USER_FOLDER + USER_NAME));
+		Files.write(userFolder.resolve(USER_NAME + ".jpg"), image);
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		FileSystemUtils.deleteRecursively(Paths.get(USER_FOLDER + USER_NAME));
+	}
+
+	@Test
+	void servesTheWholeImageWithValidators() throws Exception {
+		MvcResult result = mockMvc.perform(get(IMAGE_URL).param("v", "1"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_LENGTH, String.valueOf(image.length)))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public"))
+				.andExpect(content().bytes(image))
+				.andReturn();
+		assertNotNull(result.getResponse().getHeader(HttpHeaders.ETAG));
+		assertNotNull(result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED));
+	}
+
+	@Test
+	void answersConditionalRequestsWithNotModified() throws Exception {
+		MvcResult result = mockMvc.perform(get(IMAGE_URL)).andExpect(status().isOk()).andReturn();
+		String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+		String lastModified = result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+		mockMvc.perform(get(IMAGE_URL).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().bytes(new byte[0]));
+		mockMvc.perform(get(IMAGE_URL).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void servesASingleByteRange() throws Exception {
+		mockMvc.perform(get(IMAGE_URL).header(HttpHeaders.RANGE, "bytes=1000-1999"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1000-1999/" + image.length))
+				.andExpect(content().bytes(Arrays.copyOfRange(image, 1000, 2000)));
+		mockMvc.perform(get(IMAGE_URL).header(HttpHeaders.RANGE, "bytes=-10"))
+				.andExpect(status().isPartialContent())
+				.andExpect(content().bytes(Arrays.copyOfRange(image, image.length - 10, image.length)));
+		mockMvc.perform(get(IMAGE_URL).header(HttpHeaders.RANGE, "bytes=" + image.length + "-"))
+				.andExpect(status().isRequestedRangeNotSatisfiable());
+	}
+
+	@Test
+	void ignoresARangeForAChangedImage() throws Exception {
+		MvcResult result = mockMvc.perform(get(IMAGE_URL).header(HttpHeaders.RANGE, "bytes=0-9").header(HttpHeaders.IF_RANGE, "\"stale\""))
+				.andExpect(status().isOk())
+				.andReturn();
+		assertArrayEquals(image, result.getResponse().getContentAsByteArray());
+	}
+}
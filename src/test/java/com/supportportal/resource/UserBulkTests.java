@@ -0,0 +1,141 @@
+package com.supportportal.resource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supportportal.domain.User;
+import com.supportportal.enumeration.Role;
+import com.supportportal.domain.UserImportResult;
+import com.supportportal.repository.UserRepository;
+import com.supportportal.service.UserBulkService;
+import com.supportportal.service.UserService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(authorities = "user:create")
+class UserBulkTests {
+
+	private static final int RECORDS = 1200;
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private AutowireCapableBeanFactory beanFactory;
+
+	@BeforeEach
+	void setUp() {
+		userRepository.deleteAll();
+		userRepository.save(User.builder().userId("existing").userName("existing").email("existing@mail.com")
+				.role(Role.ROLE_USER.name()).build());
+	}
+
+	@Test
+	void importsCsvInBatchesAndRejectsConflicts() throws Exception {
+		StringBuilder csv = new StringBuilder("userName,email,firstName,lastName,role\n");
+		for (int i = 0; i < RECORDS; i++) {
+			csv.append("bulk").append(i).append(",bulk").append(i).append("@mail.com,first,last,ROLE_HR\n");
+		}
+		csv.append("existing,other@mail.com,first,last,\n");
+		csv.append("bulk0,again@mail.com,first,last,\n");
+		csv.append("unknown,unknown@mail.com,first,last,ROLE_NOBODY\n");
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		JsonNode result = objectMapper.readTree(mockMvc.perform(post("/user/import").contentType("text/csv").content(csv.toString()))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+
+		assertEquals(RECORDS, result.get("imported").asInt());
+		assertEquals(3, result.get("rejected").asInt());
+		assertTrue(result.get("rejections").toString().contains("record " + (RECORDS + 3) + ": unknown role"), result.toString());
+		assertEquals(RECORDS, statistics.getEntityInsertCount());
+		//one statement per batch of 50 inserts, one per 50 reserved ids and one lookup per chunk
+		assertTrue(statistics.getPrepareStatementCount() < RECORDS / 10, "statements: " + statistics.getPrepareStatementCount());
+		User imported = userRepository.findUserByUserName("bulk7");
+		assertEquals(Role.ROLE_HR.name(), imported.getRole());
+		assertTrue(imported.isActive() && imported.isNotLocked());
+	}
+
+	@Test
+	void rejectsOnlyTheRecordsTakenAfterTheLookup() throws Exception {
+		//the lookup misses "existing" as if it had been registered between the lookup and the inserts
+		UserRepository staleRepository = (UserRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { UserRepository.class }, (proxy, method, args) -> {
+					if(method.getName().equals("findUserNamesAndEmails"))
+					{
+						return Collections.emptyList();
+					}
+					try {
+						return method.invoke(userRepository, args);
+					} catch (InvocationTargetException e) {
+						throw e.getTargetException();
+					}
+				});
+		UserBulkService userBulkService = new UserBulkService(staleRepository, userService, transactionManager, objectMapper);
+		beanFactory.autowireBean(userBulkService);
+		String csv = "userName,email\nfirst,first@mail.com\nexisting,other@mail.com\nsecond,second@mail.com\n";
+
+		UserImportResult result = userBulkService.importUsers(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), true, "");
+
+		assertEquals(2, result.getImported());
+		assertEquals(1, result.getRejected());
+		assertTrue(result.getRejections().get(0).startsWith("record 2: userName or email was taken"), result.getRejections().toString());
+		assertEquals("first@mail.com", userRepository.findUserByUserName("first").getEmail());
+		assertEquals("second@mail.com", userRepository.findUserByUserName("second").getEmail());
+		assertEquals("existing@mail.com", userRepository.findUserByUserName("existing").getEmail());
+	}
+
+	@Test
+	void importsNdjsonAndExportsEveryUser() throws Exception {
+		String ndjson = "{\"userName\":\"json1\",\"email\":\"json1@mail.com\"}\n{\"userName\":\"json2\",\"email\":\"json2@mail.com\",\"active\":false}\n";
+		mockMvc.perform(post("/user/import").contentType("application/x-ndjson").content(ndjson)).andExpect(status().isOk());
+		assertEquals(false, userRepository.findUserByUserName("json2").isActive());
+
+		MvcResult csvExport = mockMvc.perform(get("/user/export")).andExpect(request().asyncStarted()).andReturn();
+		String csv = mockMvc.perform(asyncDispatch(csvExport)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+		String[] lines = csv.split("\n");
+		assertEquals("userId,firstName,lastName,userName,email,role,active,notLocked,joinDate", lines[0]);
+		assertEquals(4, lines.length);
+
+		MvcResult ndjsonExport = mockMvc.perform(get("/user/export").param("format", "ndjson")).andExpect(request().asyncStarted()).andReturn();
+		String exported = mockMvc.perform(asyncDispatch(ndjsonExport)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+		assertEquals("json1", objectMapper.readTree(exported.split("\n")[1]).get("userName").asText());
+	}
+}
@@ -0,0 +1,97 @@
+package com.supportportal.resource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supportportal.domain.User;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class UserListingTests {
+
+	private static final int USERS = 25;
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@BeforeEach
+	void setUp() {
+		userRepository.deleteAll();
+		for (int i = 0; i < USERS; i++) {
+			userRepository.save(User.builder().userId("id" + i).userName("list" + i).email("list" + i + "@mail.com")
+					.role(Role.ROLE_USER.name()).build());
+		}
+	}
+
+	@Test
+	void pagesThroughEveryUserOnceWithTheCursor() throws Exception {
+		Set<String> userNames = new HashSet<>();
+		String after = "";
+		int pages = 0;
+		do {
+			JsonNode page = objectMapper.readTree(mockMvc.perform(get("/user/page").param("size", "10").param("after", after))
+					.andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+			page.get("users").forEach(user -> assertTrue(userNames.add(user.get("userName").asText())));
+			after = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+			pages++;
+		} while (after != null);
+		assertEquals(USERS, userNames.size());
+		assertEquals(3, pages);
+	}
+
+	@Test
+	void listAndFindSendTheSameFieldsWithoutTheStoredOnes() throws Exception {
+		JsonNode users = objectMapper.readTree(mockMvc.perform(get("/user/list")).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+		assertEquals(USERS, users.size());
+		JsonNode listed = users.get(0);
+		JsonNode found = objectMapper.readTree(mockMvc.perform(get("/user/find/list0")).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+		assertEquals(found, listed);
+		assertEquals("list0", listed.get("userName").asText());
+		assertEquals(Role.ROLE_USER.getAuthorities().length, listed.get("authorities").size());
+		assertFalse(listed.has("id"));
+		assertFalse(listed.has("password"));
+		assertFalse(listed.has("profileImageHash"));
+	}
+
+	@Test
+	void streamsEveryUserAsOneJsonArray() throws Exception {
+		MvcResult result = mockMvc.perform(get("/user/stream")).andExpect(request().asyncStarted()).andReturn();
+		String body = mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		JsonNode users = objectMapper.readTree(body);
+		assertEquals(USERS, users.size());
+		assertEquals("list0", users.get(0).get("userName").asText());
+		//the same fields as the other read endpoints, never the internal id or the password hash
+		assertFalse(users.get(0).has("id"));
+		assertFalse(users.get(0).has("password"));
+	}
+}
@@ -0,0 +1,95 @@
+package com.supportportal.resource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supportportal.domain.User;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class UserSearchTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@BeforeEach
+	void setUp() {
+		userRepository.deleteAll();
+		save("alice", "alice@mail.com", "Alice", "Smith", Role.ROLE_ADMIN, true, true);
+		save("albert", "albert@mail.com", "Albert", "Jones", Role.ROLE_USER, true, false);
+		save("bob", "bob@mail.com", "Bob", "Alley", Role.ROLE_USER, false, true);
+		save("carol", "carol@firm.com", "Carol", "Smithers", Role.ROLE_USER, true, true);
+		save("under_score", "under@mail.com", "Dan", "Doe", Role.ROLE_USER, true, true);
+	}
+
+	@Test
+	void prefixMatchesTheStartOfAnyNameOrEmail() throws Exception {
+		assertEquals(Arrays.asList("albert", "alice", "bob"), userNames(get("/user/search").param("q", "Al")
+				.param("match", "prefix")));
+		assertEquals(Arrays.asList("alice", "carol"), userNames(get("/user/search").param("q", "Smith")));
+		assertEquals(Arrays.asList("albert", "alice"), userNames(get("/user/search").param("q", "al").param("field", "userName")));
+		assertEquals(Arrays.asList("carol"), userNames(get("/user/search").param("q", "mith").param("match", "contains")
+				.param("role", "role_user")));
+	}
+
+	@Test
+	void wildcardsInTheQueryAreMatchedLiterally() throws Exception {
+		assertEquals(Arrays.asList("under_score"), userNames(get("/user/search").param("q", "under_")));
+		assertEquals(Arrays.asList(), userNames(get("/user/search").param("q", "%")));
+	}
+
+	@Test
+	void filtersSortsAndPages() throws Exception {
+		assertEquals(Arrays.asList("albert"), userNames(get("/user/search").param("isNotLocked", "false")));
+		assertEquals(Arrays.asList("bob"), userNames(get("/user/search").param("isActive", "false")));
+		assertEquals(Arrays.asList("carol", "albert", "under_score"), userNames(get("/user/search").param("role", "ROLE_USER")
+				.param("isActive", "true").param("sort", "lastName").param("direction", "desc")));
+
+		JsonNode page = search(get("/user/search").param("size", "2").param("page", "2"));
+		assertEquals(5, page.get("totalElements").asInt());
+		assertEquals(3, page.get("totalPages").asInt());
+		assertEquals("under_score", page.get("users").get(0).get("userName").asText());
+		//unknown sort fields fall back to userName
+		assertEquals("albert", userNames(get("/user/search").param("sort", "password")).get(0));
+	}
+
+	private List<String> userNames(MockHttpServletRequestBuilder request) throws Exception {
+		List<String> userNames = new ArrayList<>();
+		search(request).get("users").forEach(user -> userNames.add(user.get("userName").asText()));
+		return userNames;
+	}
+
+	private JsonNode search(MockHttpServletRequestBuilder request) throws Exception {
+		return objectMapper.readTree(mockMvc.perform(request).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+	}
+
+	private void save(String userName, String email, String firstName, String lastName, Role role, boolean isActive, boolean isNotLocked) {
+		userRepository.save(User.builder().userId(userName).userName(userName).email(email).firstName(firstName).lastName(lastName)
+				.role(role.name()).isActive(isActive).isNotLocked(isNotLocked).build());
+	}
+}
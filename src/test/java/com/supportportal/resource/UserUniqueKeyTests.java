@@ -0,0 +1,73 @@
+package com.supportportal.resource;
+
+import com.supportportal.domain.User;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//a taken userName or email is reported from the unique key violation, without selecting the user first
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class UserUniqueKeyTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@BeforeEach
+	void setUp() {
+		userRepository.deleteAll();
+		userRepository.save(User.builder().userId("taken").userName("taken").email("taken@mail.com")
+				.role(Role.ROLE_USER.name()).isActive(true).isNotLocked(true).build());
+		userRepository.save(User.builder().userId("other").userName("other").email("other@mail.com")
+				.role(Role.ROLE_USER.name()).isActive(true).isNotLocked(true).build());
+	}
+
+	@Test
+	void registerReportsTakenUserNameAndEmailWithoutLookups() throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		mockMvc.perform(post("/user/register").contentType(APPLICATION_JSON)
+				.content("{\"firstName\":\"a\",\"lastName\":\"b\",\"userName\":\"taken\",\"email\":\"new@mail.com\"}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("USERNAME ALREADY EXITS TAKEN"));
+		mockMvc.perform(post("/user/register").contentType(APPLICATION_JSON)
+				.content("{\"firstName\":\"a\",\"lastName\":\"b\",\"userName\":\"new\",\"email\":\"taken@mail.com\"}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("EMAIL ALREADY TAKEN TAKEN@MAIL.COM"));
+		assertEquals(0, statistics.getQueryExecutionCount());
+		assertEquals(2, userRepository.count());
+	}
+
+	@Test
+	void updateToATakenUserNameIsRejected() throws Exception {
+		mockMvc.perform(post("/user/update").param("currentUserName", "other").param("firstName", "a").param("lastName", "b")
+				.param("userName", "taken").param("email", "other@mail.com").param("role", "ROLE_USER")
+				.param("isActive", "true").param("nonLocked", "true"))
+				.andExpect(status().isBadRequest());
+		assertEquals("other@mail.com", userRepository.findUserByUserName("other").getEmail());
+		assertEquals("taken@mail.com", userRepository.findUserByUserName("taken").getEmail());
+	}
+}
@@ -0,0 +1,75 @@
+package com.supportportal.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.supportportal.domain.Avatar;
+import com.supportportal.utility.IdenticonGenerator;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.supportportal.constant.FileConstant.AVATAR_SIZE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AvatarServiceTests {
+
+	@Test
+	void rendersTheSameIdenticonForTheSameUserName() throws Exception {
+		AvatarService avatarService = new AvatarService(new IdenticonGenerator(), false, "http://localhost:1/");
+		try {
+			Avatar first = avatarService.getAvatar("alice");
+			assertEquals(AVATAR_SIZE, ImageIO.read(new ByteArrayInputStream(first.getImage())).getWidth());
+			assertFalse(first.getETag().equals(avatarService.getAvatar("bob").getETag()));
+			//a new instance has an empty memory cache and renders the same image, so clients keep their etag
+			AvatarService restarted = new AvatarService(new IdenticonGenerator(), false, "http://localhost:1/");
+			assertArrayEquals(first.getImage(), restarted.getAvatar("alice").getImage());
+			assertEquals(first.getETag(), restarted.getAvatar("alice").getETag());
+			restarted.shutdown();
+		} finally {
+			avatarService.shutdown();
+		}
+	}
+
+	@Test
+	void servesTheIdenticonUntilTheUpstreamAvatarArrives() throws Exception {
+		byte[] upstreamImage = {1, 2, 3};
+		CountDownLatch release = new CountDownLatch(1);
+		HttpServer upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		upstream.createContext("/", exchange -> {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.getResponseHeaders().set("Content-Type", "image/png");
+			exchange.sendResponseHeaders(200, upstreamImage.length);
+			try (OutputStream body = exchange.getResponseBody()) {
+				body.write(upstreamImage);
+			}
+		});
+		upstream.start();
+		AvatarService avatarService = new AvatarService(new IdenticonGenerator(), true,
+				"http://localhost:" + upstream.getAddress().getPort() + "/");
+		try {
+			//the upstream is still holding its response, the request must not wait for it
+			Avatar identicon = avatarService.getAvatar("alice");
+			assertTrue(identicon.getImage().length > upstreamImage.length);
+			release.countDown();
+			long deadline = System.currentTimeMillis() + 5000;
+			while (avatarService.getAvatar("alice").getImage().length != upstreamImage.length && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+			assertArrayEquals(upstreamImage, avatarService.getAvatar("alice").getImage());
+		} finally {
+			avatarService.shutdown();
+			upstream.stop(0);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package com.supportportal.service;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.supportportal.domain.EmailOutbox;
+import com.supportportal.enumeration.EmailStatus;
+import com.supportportal.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.mail.internet.MimeMessage;
+import java.util.Date;
+import java.util.List;
+
+import static com.supportportal.constant.EmailConstant.PASSWORD;
+import static com.supportportal.constant.EmailConstant.USERNAME;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EmailDispatcherTests {
+
+	private final GreenMail greenMail = new GreenMail(ServerSetupTest.SMTP);
+
+	@Autowired
+	private EmailService emailService;
+	@Autowired
+	private EmailDispatcher emailDispatcher;
+	@Autowired
+	private EmailOutboxRepository emailOutboxRepository;
+
+	@BeforeEach
+	void setUp() {
+		emailOutboxRepository.deleteAll();
+	}
+
+	@AfterEach
+	void tearDown() {
+		greenMail.stop();
+	}
+
+	@Test
+	void sendsQueuedEmailsOverPooledConnections() throws Exception {
+		greenMail.setUser(USERNAME, PASSWORD);
+		greenMail.start();
+		for (int i = 0; i < 10; i++) {
+			emailService.sendNewPasswordEmail("John", "secret" + i, "john" + i + "@mail.com");
+		}
+		assertEquals(10, emailDispatcher.getQueueDepth());
+		assertEquals(0, greenMail.getReceivedMessages().length);
+		for (EmailOutbox email : emailOutboxRepository.findAll()) {
+			assertFalse(email.getBody().contains("secret"));
+		}
+
+		emailDispatcher.dispatch();
+
+		MimeMessage[] received = greenMail.getReceivedMessages();
+		assertEquals(10, received.length);
+		assertTrue(((String) received[0].getContent()).contains("Your new account password is: secret"));
+		assertEquals(0, emailDispatcher.getQueueDepth());
+		for (EmailOutbox email : emailOutboxRepository.findAll()) {
+			assertEquals(EmailStatus.SENT, email.getStatus());
+			assertNull(email.getBody());
+		}
+	}
+
+	@Test
+	void retriesWithBackoffWhenSmtpIsDown() {
+		emailService.sendNewPasswordEmail("John", "secret", "john@mail.com");
+
+		emailDispatcher.dispatch();
+
+		List<EmailOutbox> emails = emailOutboxRepository.findAll();
+		assertEquals(1, emails.size());
+		EmailOutbox email = emails.get(0);
+		assertEquals(EmailStatus.PENDING, email.getStatus());
+		assertEquals(1, email.getAttempts());
+		assertNotNull(email.getLastError());
+		assertTrue(email.getNextAttemptAt().after(new Date()));
+
+		//not due yet, so nothing is picked up again
+		emailDispatcher.dispatch();
+		assertEquals(1, emailOutboxRepository.findAll().get(0).getAttempts());
+	}
+
+	@Test
+	void purgesSentEmailsOlderThanTheRetention() {
+		long day = 24 * 60 * 60 * 1000L;
+		Date[] sentAt = {new Date(System.currentTimeMillis() - 30 * day), new Date(), null};
+		EmailStatus[] status = {EmailStatus.SENT, EmailStatus.SENT, EmailStatus.PENDING};
+		for (int i = 0; i < sentAt.length; i++) {
+			EmailOutbox email = new EmailOutbox("john" + i + "@mail.com", "", "subject", null);
+			email.setStatus(status[i]);
+			email.setSentAt(sentAt[i]);
+			emailOutboxRepository.save(email);
+		}
+
+		emailDispatcher.purgeSentEmails();
+
+		List<EmailOutbox> emails = emailOutboxRepository.findAll();
+		assertEquals(2, emails.size());
+		assertTrue(emails.stream().noneMatch(email -> email.getRecipient().equals("john0@mail.com")));
+	}
+}
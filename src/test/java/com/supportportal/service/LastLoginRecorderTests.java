@@ -0,0 +1,58 @@
+package com.supportportal.service;
+
+import com.supportportal.domain.User;
+import com.supportportal.domain.UserResponse;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LastLoginRecorderTests {
+
+	@Autowired
+	private LastLoginRecorder lastLoginRecorder;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private UserRepository userRepository;
+
+	@BeforeEach
+	void setUp() {
+		lastLoginRecorder.flush();
+		userRepository.deleteAll();
+		userRepository.save(User.builder().userId("recorded").firstName("first").lastName("last").userName("recorded")
+				.email("recorded@mail.com").password("password").isActive(true).isNotLocked(true)
+				.role(Role.ROLE_USER.name()).build());
+	}
+
+	@Test
+	void unlockByAnAdministratorCancelsTheQueuedLock() {
+		lastLoginRecorder.recordLock(userRepository.findUserByUserName("recorded"));
+		userService.updateUser("recorded", "first", "last", "recorded", "recorded@mail.com", Role.ROLE_USER.name(), true, true, null);
+		lastLoginRecorder.flush();
+		assertTrue(userRepository.findUserByUserName("recorded").isNotLocked());
+		assertTrue(userService.findByUserName("recorded").isNotLocked());
+	}
+
+	@Test
+	void flushedLoginsAndLocksAreVisibleToCachedLookups() {
+		assertTrue(userService.findByUserName("recorded").isNotLocked());
+		User user = userRepository.findUserByUserName("recorded");
+		lastLoginRecorder.recordLogin(user);
+		lastLoginRecorder.recordLock(user);
+		lastLoginRecorder.flush();
+
+		UserResponse cached = userService.findByUserName("recorded");
+		assertFalse(cached.isNotLocked());
+		assertEquals(user.getLastLoginDate().getTime(), cached.getLastLoginDate().getTime());
+	}
+}
@@ -0,0 +1,36 @@
+package com.supportportal.service;
+
+import com.supportportal.utility.BCryptCostCalibrator;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTests {
+
+	@Test
+	void hashesEveryPasswordWhenTheQueueOverflows() {
+		BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+		PasswordHasher passwordHasher = new PasswordHasher(encoder, 2, 1);
+		List<CompletableFuture<String>> hashes = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			hashes.add(passwordHasher.encodeAsync("password" + i));
+		}
+		for (int i = 0; i < 20; i++) {
+			assertTrue(encoder.matches("password" + i, hashes.get(i).join()));
+		}
+		assertEquals(20, passwordHasher.getHashedCount());
+		passwordHasher.shutdown();
+	}
+
+	@Test
+	void calibrationStaysWithinTheCostBounds() {
+		assertEquals(4, BCryptCostCalibrator.calibrate(0, 4, 12));
+		int cost = BCryptCostCalibrator.calibrate(50, 4, 8);
+		assertTrue(cost >= 4 && cost <= 8);
+	}
+}
@@ -0,0 +1,216 @@
+package com.supportportal.service;
+
+import com.supportportal.domain.User;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.StoredImageRepository;
+import com.supportportal.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.MediaType.IMAGE_PNG_VALUE;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class ProfileImageProcessorTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private StoredImageRepository storedImageRepository;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ProfileImageProcessor profileImageProcessor;
+	@Autowired
+	private ImageStore imageStore;
+	@Autowired
+	private UserCache userCache;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private byte[] upload;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		userRepository.deleteAll();
+		for (String userName : new String[]{"first-uploader", "second-uploader"}) {
+			userRepository.save(User.builder().userId(userName).userName(userName).email(userName + "@mail.com")
+					.profileImageUrl("temporary").role(Role.ROLE_USER.name()).build());
+		}
+		//a random colour keeps the image, and so its hash, apart from earlier runs
+		BufferedImage image = new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_ARGB);
+		image.setRGB(0, 0, new Color(ThreadLocalRandom.current().nextInt()).getRGB());
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", png);
+		upload = png.toByteArray();
+	}
+
+	@Test
+	void writesSquareVariantsAndThenPublishesTheUrl() throws Exception {
+		upload("first-uploader");
+		User user = userRepository.findUserByUserName("first-uploader");
+		String hash = user.getProfileImageHash();
+		assertTrue(user.getProfileImageUrl().endsWith("/user/image/hash/" + hash + "/512.jpg"), user.getProfileImageUrl());
+		assertEquals(512, ImageIO.read(imageStore.getImageFile(hash, "512.jpg").toFile()).getWidth());
+		assertEquals(128, ImageIO.read(imageStore.getImageFile(hash, "128.jpg").toFile()).getHeight());
+		assertEquals(32, ImageIO.read(imageStore.getImageFile(hash, "32.jpg").toFile()).getWidth());
+	}
+
+	@Test
+	void sharesIdenticalUploadsAndCollectsThemOnceUnreferenced() throws Exception {
+		upload("first-uploader");
+		upload("second-uploader");
+		String hash = userRepository.findUserByUserName("first-uploader").getProfileImageHash();
+		assertEquals(hash, userRepository.findUserByUserName("second-uploader").getProfileImageHash());
+		assertEquals(2, storedImageRepository.findById(hash).get().getReferenceCount());
+		Path image = imageStore.getImageFile(hash, "512.jpg");
+
+		userService.deleteUser("first-uploader");
+		imageStore.collectGarbage();
+		assertTrue(Files.exists(image));
+
+		userService.deleteUser("second-uploader");
+		assertTrue(Files.exists(image));
+		imageStore.collectGarbage();
+		assertFalse(Files.exists(image));
+		assertFalse(storedImageRepository.findById(hash).isPresent());
+	}
+
+	@Test
+	void writesTheFilesAgainWhenAReferencedImageLostThem() throws Exception {
+		upload("first-uploader");
+		String hash = userRepository.findUserByUserName("first-uploader").getProfileImageHash();
+		Path image = imageStore.getImageFile(hash, "512.jpg");
+		FileSystemUtils.deleteRecursively(image.getParent());
+
+		upload("second-uploader");
+		assertEquals(hash, userRepository.findUserByUserName("second-uploader").getProfileImageHash());
+		assertTrue(Files.exists(image));
+	}
+
+	@Test
+	void rejectsImagesTooLargeToDecodeWithoutDecodingThem() throws Exception {
+		//the upload stays small, only its header claims 50000x50000 pixels
+		ByteBuffer png = ByteBuffer.wrap(upload);
+		png.putInt(16, 50_000).putInt(20, 50_000);
+		CRC32 crc = new CRC32();
+		crc.update(upload, 12, 17);
+		png.putInt(29, (int) crc.getValue());
+		long processed = profileImageProcessor.getProcessedCount();
+		long failed = profileImageProcessor.getFailedCount();
+		mockMvc.perform(multipart("/user/updateProfileImage").file(new MockMultipartFile("profileImage", "bomb.png", IMAGE_PNG_VALUE, upload))
+				.param("userName", "first-uploader"))
+				.andExpect(status().isOk());
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (profileImageProcessor.getFailedCount() == failed && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertEquals(failed + 1, profileImageProcessor.getFailedCount());
+		assertEquals(processed, profileImageProcessor.getProcessedCount());
+		assertEquals("temporary", userService.findByUserName("first-uploader").getProfileImageUrl());
+	}
+
+	@Test
+	void queuesUploadsCommittedWhileTheWorkersAreBusy() throws Exception {
+		ProfileImageProcessor processor = new ProfileImageProcessor(userRepository, userCache, imageStore, transactionManager, 1, 1);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch busy = new CountDownLatch(1);
+		try {
+			//one image on the only worker and one in the queue
+			ThreadPoolExecutor workers = (ThreadPoolExecutor) ReflectionTestUtils.getField(processor, "workers");
+			workers.execute(() -> {
+				started.countDown();
+				try {
+					busy.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			started.await();
+			workers.execute(() -> {});
+			//the worker is freed while the committing upload below waits for room
+			new Thread(() -> {
+				try {
+					Thread.sleep(500);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				busy.countDown();
+			}).start();
+			User user = userRepository.findUserByUserName("first-uploader");
+			new TransactionTemplate(transactionManager).execute(status -> {
+				try {
+					processor.submit(user, new MockMultipartFile("profileImage", "upload.png", IMAGE_PNG_VALUE, upload), "http://localhost/user/image/hash/");
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				return null;
+			});
+
+			long deadline = System.currentTimeMillis() + 10_000;
+			while (processor.getProcessedCount() == 0 && processor.getFailedCount() == 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+			assertEquals(0, processor.getFailedCount());
+			assertEquals(1, processor.getProcessedCount());
+			String hash = userRepository.findUserByUserName("first-uploader").getProfileImageHash();
+			assertEquals("http://localhost/user/image/hash/" + hash + "/512.jpg", userRepository.findUserByUserName("first-uploader").getProfileImageUrl());
+		} finally {
+			busy.countDown();
+			processor.shutdown();
+		}
+	}
+
+	@Test
+	void rejectsNamesOutsideTheStore() {
+		assertNull(imageStore.getImageFile("..", "512.jpg"));
+		assertNull(imageStore.getImageFile("ab", "../../etc/passwd"));
+	}
+
+	private void upload(String userName) throws Exception {
+		long processed = profileImageProcessor.getProcessedCount();
+		mockMvc.perform(multipart("/user/updateProfileImage").file(new MockMultipartFile("profileImage", "upload.png", IMAGE_PNG_VALUE, upload))
+				.param("userName", userName))
+				.andExpect(status().isOk());
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (profileImageProcessor.getProcessedCount() == processed && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertEquals(processed + 1, profileImageProcessor.getProcessedCount());
+	}
+}
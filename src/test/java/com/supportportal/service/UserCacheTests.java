@@ -0,0 +1,83 @@
+package com.supportportal.service;
+
+import com.supportportal.domain.User;
+import com.supportportal.domain.UserResponse;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserCacheTests {
+
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private UserCache userCache;
+
+	@BeforeEach
+	void setUp() {
+		userRepository.deleteAll();
+		userRepository.save(User.builder().userId("cached").firstName("first").lastName("last").userName("cached")
+				.email("cached@mail.com").password("password").isActive(true).isNotLocked(true)
+				.role(Role.ROLE_USER.name()).build());
+	}
+
+	@Test
+	void repeatedLookupsAreServedFromTheCache() {
+		long hits = userCache.getUserNameStats().hitCount();
+		userService.findByUserName("cached");
+		userService.findByUserName("cached");
+		userService.findUserByEmail("cached@mail.com");
+		userService.findUserByEmail("cached@mail.com");
+		assertEquals(hits + 1, userCache.getUserNameStats().hitCount());
+		assertTrue(userCache.getEmailStats().hitCount() >= 1);
+	}
+
+	@Test
+	void updateIsVisibleToTheNextLookup() {
+		userService.findByUserName("cached");
+		userService.findUserByEmail("cached@mail.com");
+		userService.updateUser("cached", "changed", "last", "cached", "cached@mail.com", Role.ROLE_ADMIN.name(), true, false, null);
+		UserResponse user = userService.findByUserName("cached");
+		assertEquals("changed", user.getFirstName());
+		assertEquals(Role.ROLE_ADMIN.name(), user.getRole());
+		assertFalse(user.isNotLocked());
+		assertEquals("changed", userService.findUserByEmail("cached@mail.com").getFirstName());
+	}
+
+	@Test
+	void renameDropsTheOldUserNameAndEmail() {
+		userService.findByUserName("cached");
+		userService.findUserByEmail("cached@mail.com");
+		userService.updateUser("cached", "first", "last", "renamed", "renamed@mail.com", Role.ROLE_USER.name(), true, true, null);
+		assertNull(userService.findByUserName("cached"));
+		assertNull(userService.findUserByEmail("cached@mail.com"));
+		assertEquals("renamed@mail.com", userService.findByUserName("renamed").getEmail());
+		assertEquals("renamed", userService.findUserByEmail("renamed@mail.com").getUserName());
+	}
+
+	@Test
+	void resetPasswordAndDeleteAreVisibleToTheNextLookup() {
+		userService.findByUserName("cached");
+		String password = userRepository.findUserByUserName("cached").getPassword();
+		userService.resetPassword("cached@mail.com");
+		assertNotEquals(password, userRepository.findUserByUserName("cached").getPassword());
+		assertEquals("cached@mail.com", userService.findByUserName("cached").getEmail());
+		userService.deleteUser("cached");
+		assertNull(userService.findByUserName("cached"));
+		assertNull(userService.findUserByEmail("cached@mail.com"));
+	}
+}
@@ -0,0 +1,92 @@
+package com.supportportal.service.implementation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryLoginAttemptStoreTests {
+
+	private static final long WINDOW = TimeUnit.MINUTES.toMillis(15);
+
+	@Test
+	void concurrentFailedLoginsDoNotLoseIncrements() throws Exception {
+		int threads = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+		int incrementsPerThread = 2_000;
+		String[] userNames = {"alice", "bob", "carol", "dave"};
+		InMemoryLoginAttemptStore loginAttemptStore = new InMemoryLoginAttemptStore(() -> WINDOW * 100, 1_000);
+		ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int thread = 0; thread < threads; thread++) {
+			futures.add(executorService.submit(() -> {
+				start.await();
+				for (int i = 0; i < incrementsPerThread; i++) {
+					loginAttemptStore.addAttempt(userNames[i % userNames.length]);
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(1, TimeUnit.MINUTES);
+		}
+		executorService.shutdown();
+
+		for (String userName : userNames) {
+			assertEquals(threads * incrementsPerThread / userNames.length, loginAttemptStore.getAttempts(userName));
+		}
+	}
+
+	@Test
+	void attemptsSlideOutOfTheWindow() {
+		AtomicLong now = new AtomicLong(WINDOW * 100);
+		InMemoryLoginAttemptStore loginAttemptStore = new InMemoryLoginAttemptStore(now::get, 1_000);
+		for (int i = 0; i < 5; i++) {
+			loginAttemptStore.addAttempt("alice");
+		}
+		assertEquals(5, loginAttemptStore.getAttempts("alice"));
+
+		now.addAndGet(WINDOW / 2);
+		assertEquals(5, loginAttemptStore.getAttempts("alice"));
+
+		now.addAndGet(WINDOW);
+		assertEquals(2, loginAttemptStore.getAttempts("alice"));
+
+		now.addAndGet(WINDOW);
+		assertEquals(0, loginAttemptStore.getAttempts("alice"));
+		loginAttemptStore.removeExpiredAttempts();
+		assertEquals(0, loginAttemptStore.getTrackedUserCount());
+	}
+
+	@Test
+	void evictResetsAttempts() {
+		InMemoryLoginAttemptStore loginAttemptStore = new InMemoryLoginAttemptStore();
+		for (int i = 0; i < 5; i++) {
+			loginAttemptStore.addAttempt("alice");
+		}
+		loginAttemptStore.reset("alice");
+		assertEquals(0, loginAttemptStore.getAttempts("alice"));
+	}
+
+	@Test
+	void madeUpUserNamesDoNotGrowTheStoreBeyondItsBound() {
+		InMemoryLoginAttemptStore loginAttemptStore = new InMemoryLoginAttemptStore(() -> WINDOW * 100, 100);
+		for (int i = 0; i < 10_000; i++) {
+			loginAttemptStore.addAttempt("sprayed" + i);
+		}
+		assertTrue(loginAttemptStore.getTrackedUserCount() <= 100, "tracked: " + loginAttemptStore.getTrackedUserCount());
+		for (int i = 0; i < 5; i++) {
+			loginAttemptStore.addAttempt("alice");
+		}
+		assertEquals(5, loginAttemptStore.getAttempts("alice"));
+	}
+}
@@ -0,0 +1,57 @@
+package com.supportportal.service.implementation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "login-attempt.store=shared")
+@ActiveProfiles("test")
+class JpaLoginAttemptCounterStoreTests {
+
+	private static final long WINDOW = 60_000;
+	private static final long SHORT_WINDOW = 1_000;
+
+	@Autowired
+	private JpaLoginAttemptCounterStore loginAttemptCounterStore;
+
+	@Test
+	void addsToCountersAndRestartsExpiredWindows() throws InterruptedException {
+		Map<String, Integer> deltas = new HashMap<>();
+		deltas.put("alice", 2);
+		deltas.put("bob", 1);
+		assertEquals(2, loginAttemptCounterStore.addAll(deltas, WINDOW).get("alice"));
+		assertEquals(5, loginAttemptCounterStore.addAll(Collections.singletonMap("alice", 3), WINDOW).get("alice"));
+
+		//once the window has passed the counter starts over
+		Thread.sleep(SHORT_WINDOW + 100);
+		assertEquals(4, loginAttemptCounterStore.addAll(Collections.singletonMap("alice", 4), SHORT_WINDOW).get("alice"));
+
+		loginAttemptCounterStore.deleteAll(Collections.singleton("bob"));
+		assertEquals(0, loginAttemptCounterStore.getAll(Collections.singleton("bob"), WINDOW).size());
+	}
+
+	@Test
+	void readsAndDeletesManyCountersInChunks() {
+		List<String> userNames = IntStream.range(0, 1_200).mapToObj(i -> "chunked" + i).collect(Collectors.toList());
+		Map<String, Integer> deltas = new HashMap<>();
+		userNames.forEach(userName -> deltas.put(userName, 1));
+		loginAttemptCounterStore.addAll(deltas, WINDOW);
+
+		Map<String, Integer> totals = loginAttemptCounterStore.getAll(userNames, WINDOW);
+		assertEquals(1_200, totals.size());
+		assertEquals(1, totals.get("chunked1199").intValue());
+
+		loginAttemptCounterStore.deleteAll(userNames);
+		assertEquals(0, loginAttemptCounterStore.getAll(userNames, WINDOW).size());
+	}
+}
@@ -0,0 +1,117 @@
+package com.supportportal.service.implementation;
+
+import com.supportportal.service.LoginAttemptCounterStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SharedLoginAttemptStoreTests {
+
+	//embedded stand-in for the shared key value store
+	private static class InMemoryCounterStore implements LoginAttemptCounterStore {
+		private final Map<String, Integer> counters = new ConcurrentHashMap<>();
+		private boolean failReads;
+		private int readUserNames;
+
+		@Override
+		public Map<String, Integer> addAll(Map<String, Integer> deltas, long windowMillis) {
+			deltas.forEach((userName, delta) -> counters.merge(userName, delta, Integer::sum));
+			Map<String, Integer> totals = new HashMap<>();
+			deltas.keySet().forEach(userName -> totals.put(userName, counters.get(userName)));
+			return totals;
+		}
+
+		@Override
+		public Map<String, Integer> getAll(Collection<String> userNames, long windowMillis) {
+			if(failReads)
+			{
+				throw new IllegalStateException("shared store unavailable");
+			}
+			readUserNames += userNames.size();
+			Map<String, Integer> totals = new HashMap<>();
+			userNames.forEach(userName -> totals.put(userName, counters.getOrDefault(userName, 0)));
+			return totals;
+		}
+
+		@Override
+		public void deleteAll(Collection<String> userNames) {
+			userNames.forEach(counters::remove);
+		}
+	}
+
+	@Test
+	void nodesSeeEachOthersAttemptsAfterSync() {
+		InMemoryCounterStore counterStore = new InMemoryCounterStore();
+		SharedLoginAttemptStore firstNode = new SharedLoginAttemptStore(counterStore);
+		SharedLoginAttemptStore secondNode = new SharedLoginAttemptStore(counterStore);
+
+		for (int i = 0; i < 3; i++) {
+			firstNode.addAttempt("alice");
+			secondNode.addAttempt("alice");
+		}
+		assertEquals(3, firstNode.getAttempts("alice"));
+		assertEquals(0, counterStore.counters.size());
+
+		firstNode.sync();
+		secondNode.sync();
+		firstNode.sync();
+		assertEquals(6, firstNode.getAttempts("alice"));
+		assertEquals(6, secondNode.getAttempts("alice"));
+
+		secondNode.reset("alice");
+		secondNode.sync();
+		firstNode.sync();
+		assertEquals(0, firstNode.getAttempts("alice"));
+		assertEquals(0, secondNode.getAttempts("alice"));
+	}
+
+	@Test
+	void attemptsThatReachedTheSharedStoreAreNotAddedAgainAfterAFailedRead() {
+		InMemoryCounterStore counterStore = new InMemoryCounterStore();
+		SharedLoginAttemptStore node = new SharedLoginAttemptStore(counterStore);
+		assertEquals(0, node.getAttempts("bob"));
+		for (int i = 0; i < 3; i++) {
+			node.addAttempt("alice");
+		}
+
+		counterStore.failReads = true;
+		node.sync();
+		assertEquals(3, counterStore.counters.get("alice").intValue());
+		assertEquals(3, node.getAttempts("alice"));
+
+		counterStore.counters.put("bob", 4);
+		counterStore.failReads = false;
+		node.sync();
+		assertEquals(3, counterStore.counters.get("alice").intValue());
+		assertEquals(3, node.getAttempts("alice"));
+		//the read that failed is tried again
+		assertEquals(4, node.getAttempts("bob"));
+	}
+
+	@Test
+	void onlyKnownAttemptsAreRefreshed() {
+		InMemoryCounterStore counterStore = new InMemoryCounterStore();
+		SharedLoginAttemptStore node = new SharedLoginAttemptStore(counterStore);
+		for (int i = 0; i < 1_000; i++) {
+			node.getAttempts("user" + i);
+		}
+		node.addAttempt("alice");
+		node.sync();
+		assertEquals(1_000, counterStore.readUserNames);
+
+		//userNames without attempts are read again only when somebody logs in with them
+		counterStore.readUserNames = 0;
+		node.sync();
+		assertEquals(1, counterStore.readUserNames);
+		assertEquals(1, node.getAttempts("alice"));
+		counterStore.counters.put("user7", 2);
+		assertEquals(0, node.getAttempts("user7"));
+		node.sync();
+		assertEquals(2, node.getAttempts("user7"));
+	}
+}
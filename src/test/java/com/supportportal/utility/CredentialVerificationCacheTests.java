@@ -0,0 +1,50 @@
+package com.supportportal.utility;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CredentialVerificationCacheTests {
+
+	private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+	private final InMemoryUserDetailsManager users = new InMemoryUserDetailsManager();
+	private final CredentialVerificationCache cache = new CredentialVerificationCache(true, 60_000);
+	private final CachingDaoAuthenticationProvider provider = new CachingDaoAuthenticationProvider(cache);
+
+	CredentialVerificationCacheTests() {
+		provider.setUserDetailsService(users);
+		provider.setPasswordEncoder(encoder);
+		users.createUser(User.withUsername("john").password(encoder.encode("secret")).authorities("user:read").build());
+	}
+
+	@Test
+	void repeatedLoginIsVerifiedFromTheCache() {
+		provider.authenticate(new UsernamePasswordAuthenticationToken("john", "secret"));
+		provider.authenticate(new UsernamePasswordAuthenticationToken("john", "secret"));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(0.5, cache.getHitRate());
+		assertThrows(BadCredentialsException.class, () -> provider.authenticate(new UsernamePasswordAuthenticationToken("john", "wrong")));
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	void changedPasswordOrLockIsNeverServedFromTheCache() {
+		provider.authenticate(new UsernamePasswordAuthenticationToken("john", "secret"));
+		users.updateUser(User.withUsername("john").password(encoder.encode("changed")).authorities("user:read").build());
+		assertThrows(BadCredentialsException.class, () -> provider.authenticate(new UsernamePasswordAuthenticationToken("john", "secret")));
+		provider.authenticate(new UsernamePasswordAuthenticationToken("john", "changed"));
+
+		users.updateUser(User.withUserDetails(users.loadUserByUsername("john")).accountLocked(true).build());
+		assertThrows(LockedException.class, () -> provider.authenticate(new UsernamePasswordAuthenticationToken("john", "changed")));
+		assertEquals(0, cache.getHitCount());
+
+		cache.invalidate("john");
+		assertEquals(0, cache.getSize());
+	}
+}
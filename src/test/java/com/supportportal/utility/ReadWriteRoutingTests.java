@@ -0,0 +1,98 @@
+package com.supportportal.utility;
+
+import com.supportportal.domain.User;
+import com.supportportal.enumeration.Role;
+import com.supportportal.repository.UserRepository;
+import com.supportportal.service.UserService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//two embedded databases, the replica only catches up with the primary when the test replicates
+@SpringBootTest(properties = {
+		"spring.datasource.replica.url=" + ReadWriteRoutingTests.REPLICA_URL,
+		"spring.datasource.replica.username=sa",
+		"spring.datasource.replica.max-lag=60000"})
+@ActiveProfiles("test")
+class ReadWriteRoutingTests {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:supportportal-replica;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=MySQL";
+	private static final DataSource REPLICA = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private DataSourceProperties dataSourceProperties;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void setUp() {
+		Flyway.configure().dataSource(REPLICA).locations("classpath:db/migration/h2").load().migrate();
+		userRepository.deleteAll();
+		userRepository.save(User.builder().userId("routed").firstName("before").lastName("last").userName("routed")
+				.email("routed@mail.com").role(Role.ROLE_USER.name()).isActive(true).isNotLocked(true).build());
+		replicate();
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void readOnlyTransactionsUseTheReplica() {
+		new JdbcTemplate(REPLICA).update("update user set first_name = 'replica'");
+		assertEquals("replica", userService.getUsers().get(0).getFirstName());
+		User user = new TransactionTemplate(transactionManager).execute(status -> userRepository.findUserByUserName("routed"));
+		assertEquals("before", user.getFirstName());
+	}
+
+	@Test
+	void writerReadsTheirOwnUpdateBeforeItIsReplicated() {
+		runAs("writer");
+		userService.updateUser("routed", "after", "last", "routed", "routed@mail.com", Role.ROLE_USER.name(), true, true, null);
+		assertEquals("after", userService.findByUserName("routed").getFirstName());
+		assertEquals("after", userService.getUsers().get(0).getFirstName());
+		runAs("reader");
+		assertEquals("before", userService.findByUserName("routed").getFirstName());
+		//the stale row was not cached, the reader sees the update once it is replicated
+		replicate();
+		assertEquals("after", userService.findByUserName("routed").getFirstName());
+	}
+
+	private void runAs(String userName) {
+		SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(userName, null));
+	}
+
+	private void replicate() {
+		JdbcTemplate replica = new JdbcTemplate(REPLICA);
+		replica.update("delete from user");
+		JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(dataSourceProperties.getUrl(),
+				dataSourceProperties.getUsername(), dataSourceProperties.getPassword()));
+		for (Map<String, Object> row : primary.queryForList("select * from user")) {
+			String columns = String.join(", ", row.keySet());
+			String parameters = String.join(", ", Collections.nCopies(row.size(), "?"));
+			replica.update("insert into user (" + columns + ") values (" + parameters + ")", row.values().toArray());
+		}
+	}
+}
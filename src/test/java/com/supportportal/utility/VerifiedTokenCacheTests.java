@@ -0,0 +1,55 @@
+package com.supportportal.utility;
+
+import com.supportportal.domain.User;
+import com.supportportal.domain.UserPrincipal;
+import com.supportportal.domain.VerifiedToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTests {
+
+	private final JWTTokenProvider jwtTokenProvider = new JWTTokenProvider("test-secret");
+
+	@Test
+	void returnsCachedTokenOnlyForTheExactToken() {
+		VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache();
+		String token = jwtTokenProvider.generateJWTToken(new UserPrincipal(
+				User.builder().userName("john").role("ROLE_USER").build()));
+		verifiedTokenCache.put(token, jwtTokenProvider.verifyToken(token));
+
+		assertEquals("john", verifiedTokenCache.getIfPresent(token).getSubject());
+
+		String forgedSignature = token.substring(0, token.lastIndexOf('.') + 1) + "forged";
+		String forgedPayload = token.replaceFirst("\\.", ".e");
+		assertNull(verifiedTokenCache.getIfPresent(forgedSignature));
+		assertNull(verifiedTokenCache.getIfPresent(forgedPayload));
+		assertEquals(1, verifiedTokenCache.getHitCount());
+		assertEquals(2, verifiedTokenCache.getMissCount());
+	}
+
+	@Test
+	void neverReturnsTokenPastItsExpiry() {
+		VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache();
+		VerifiedToken expired = new VerifiedToken("john", Collections.emptyList(), new Date(System.currentTimeMillis() - 1));
+		verifiedTokenCache.put("token", expired);
+
+		assertNull(verifiedTokenCache.getIfPresent("token"));
+		assertEquals(0, verifiedTokenCache.getSize());
+	}
+
+	@Test
+	void countsEvictionsWhenFull() {
+		VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(1, 10, TimeUnit.MINUTES);
+		Date expiresAt = new Date(System.currentTimeMillis() + 60_000);
+		verifiedTokenCache.put("first", new VerifiedToken("john", Collections.emptyList(), expiresAt));
+		verifiedTokenCache.put("second", new VerifiedToken("jane", Collections.emptyList(), expiresAt));
+
+		assertEquals(1, verifiedTokenCache.getEvictionCount());
+		assertNull(verifiedTokenCache.getIfPresent("first"));
+	}
+}